@@ -0,0 +1,26 @@
+package org.wildcodeschool.myblog.Service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//In-memory views (feed, search index) only learn about a write once it is committed:
+//a rolled back transaction must not leave a phantom article behind.
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    //runs the action once the current transaction commits, never if it rolls back, right away outside of a transaction
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
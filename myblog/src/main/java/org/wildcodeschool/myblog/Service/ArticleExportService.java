@@ -0,0 +1,62 @@
+package org.wildcodeschool.myblog.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.model.Article;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class ArticleExportService {
+
+    // same as the batch size of Article collections, so a chunk initializes them in one query each
+    private static final int CHUNK_SIZE = 100;
+
+    private final ArticleRepository articleRepository;
+    private final ArticleMapper articleMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public ArticleExportService(ArticleRepository articleRepository, ArticleMapper articleMapper, ObjectMapper objectMapper, EntityManager entityManager) {
+        this.articleRepository = articleRepository;
+        this.articleMapper = articleMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    //Writes every article as one JSON line, holding at most one chunk of articles in memory
+    @Transactional(readOnly = true)
+    public void exportTo(OutputStream outputStream) throws IOException {
+        try (Stream<Article> articles = articleRepository.streamAllByOrderByIdAsc()) {
+            List<Article> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<Article> iterator = articles.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, outputStream);
+                }
+            }
+            writeChunk(chunk, outputStream);
+        }
+    }
+
+    private void writeChunk(List<Article> chunk, OutputStream outputStream) throws IOException {
+        for (Article article : chunk) {
+            outputStream.write(objectMapper.writeValueAsBytes(articleMapper.convertToDTO(article)));
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+        chunk.clear();
+        // detach what was written so the persistence context does not grow with the table
+        entityManager.clear();
+    }
+}
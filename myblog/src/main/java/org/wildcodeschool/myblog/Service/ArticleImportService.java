@@ -0,0 +1,193 @@
+package org.wildcodeschool.myblog.Service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.config.CacheConfig;
+import org.wildcodeschool.myblog.dto.*;
+import org.wildcodeschool.myblog.exception.ExceededMaxLengthException;
+import org.wildcodeschool.myblog.feed.LatestArticlesFeed;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.model.*;
+import org.wildcodeschool.myblog.repository.*;
+import org.wildcodeschool.myblog.search.ArticleSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ArticleImportService {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final ArticleBatchRepository articleBatchRepository;
+    private final CategoryRepository categoryRepository;
+    private final ImageRepository imageRepository;
+    private final ImageRegistry imageRegistry;
+    private final AuthorRepository authorRepository;
+    private final ArticleSearchIndex articleSearchIndex;
+    private final LatestArticlesFeed latestArticlesFeed;
+    private final ArticleMapper articleMapper;
+    private final Validator validator;
+
+    public ArticleImportService(ArticleBatchRepository articleBatchRepository, CategoryRepository categoryRepository, ImageRepository imageRepository, ImageRegistry imageRegistry, AuthorRepository authorRepository, ArticleSearchIndex articleSearchIndex, LatestArticlesFeed latestArticlesFeed, ArticleMapper articleMapper, Validator validator) {
+        this.articleBatchRepository = articleBatchRepository;
+        this.categoryRepository = categoryRepository;
+        this.imageRepository = imageRepository;
+        this.imageRegistry = imageRegistry;
+        this.authorRepository = authorRepository;
+        this.articleSearchIndex = articleSearchIndex;
+        this.latestArticlesFeed = latestArticlesFeed;
+        this.articleMapper = articleMapper;
+        this.validator = validator;
+    }
+
+    //Imports a batch of articles: references are resolved with one query per entity type,
+    //invalid items are reported and skipped, the valid ones are inserted in a single transaction
+    @Transactional
+    @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, allEntries = true)
+    public ArticleImportResultDTO importArticles(List<ArticleCreateDTO> articleCreateDTOs) {
+        if (articleCreateDTOs.size() > MAX_BATCH_SIZE) {
+            throw new ExceededMaxLengthException("Un import ne peut pas dépasser " + MAX_BATCH_SIZE + " articles");
+        }
+
+        ArticleImportItemDTO[] items = new ArticleImportItemDTO[articleCreateDTOs.size()];
+        for (int i = 0; i < articleCreateDTOs.size(); i++) {
+            String error = validate(articleCreateDTOs.get(i));
+            if (error != null) {
+                items[i] = new ArticleImportItemDTO(i, null, error);
+            }
+        }
+
+        //resolve every referenced category, image and author at once
+        Set<Long> categoryIds = new HashSet<>();
+        Set<Long> imageIds = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] != null) {
+                continue;
+            }
+            ArticleCreateDTO articleCreateDTO = articleCreateDTOs.get(i);
+            categoryIds.add(articleCreateDTO.getCategoryId());
+            articleCreateDTO.getImages().stream().map(ImageDTO::getId).filter(Objects::nonNull).forEach(imageIds::add);
+            articleCreateDTO.getAuthors().forEach(author -> authorIds.add(author.getAuthorId()));
+        }
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Map<Long, Image> images = imageRepository.findAllById(imageIds).stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+        Map<Long, Author> authors = authorRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> positions = new ArrayList<>();
+        List<Article> articles = new ArrayList<>();
+        Set<String> imageUrls = new LinkedHashSet<>();
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] != null) {
+                continue;
+            }
+            ArticleCreateDTO articleCreateDTO = articleCreateDTOs.get(i);
+            String error = findMissingReference(articleCreateDTO, categories, images, authors);
+            if (error != null) {
+                items[i] = new ArticleImportItemDTO(i, null, error);
+                continue;
+            }
+
+            Article article = new Article();
+            article.setTitle(articleCreateDTO.getTitle());
+            article.setContent(articleCreateDTO.getContent());
+            article.setCreatedAt(now);
+            article.setUpdatedAt(now);
+            article.setCategory(categories.get(articleCreateDTO.getCategoryId()));
+
+            Set<Image> articleImages = new LinkedHashSet<>();
+            for (ImageDTO imageDTO : articleCreateDTO.getImages()) {
+                if (imageDTO.getId() != null) {
+                    articleImages.add(images.get(imageDTO.getId()));
+                } else {
+                    imageUrls.add(imageDTO.getUrl());
+                }
+            }
+            article.setImages(articleImages);
+
+            List<ArticleAuthor> contributions = new ArrayList<>();
+            for (AuthorContributionDTO authorDTO : articleCreateDTO.getAuthors()) {
+                ArticleAuthor articleAuthor = new ArticleAuthor();
+                articleAuthor.setArticle(article);
+                articleAuthor.setAuthor(authors.get(authorDTO.getAuthorId()));
+                articleAuthor.setContribution(authorDTO.getContribution());
+                contributions.add(articleAuthor);
+            }
+            article.setArticleAuthors(contributions);
+
+            positions.add(i);
+            articles.add(article);
+        }
+
+        //every url of the batch is resolved at once, then attached in the order of each article
+        Map<String, Image> registeredImages = imageRegistry.resolve(imageUrls);
+        for (int i = 0; i < articles.size(); i++) {
+            for (ImageDTO imageDTO : articleCreateDTOs.get(positions.get(i)).getImages()) {
+                if (imageDTO.getId() == null) {
+                    articles.get(i).getImages().add(registeredImages.get(imageDTO.getUrl()));
+                }
+            }
+        }
+
+        //articles, their images and their authors go out as one JDBC batch per table
+        articleBatchRepository.insertAll(articles);
+
+        for (int i = 0; i < articles.size(); i++) {
+            Article article = articles.get(i);
+            items[positions.get(i)] = new ArticleImportItemDTO(positions.get(i), article.getId(), null);
+            Long articleId = article.getId();
+            String title = article.getTitle();
+            String content = article.getContent();
+            AfterCommit.run(() -> articleSearchIndex.index(articleId, title, content));
+            ArticleSummaryDTO summary = articleMapper.convertToSummaryDTO(article);
+            AfterCommit.run(() -> latestArticlesFeed.add(summary));
+        }
+
+        ArticleImportResultDTO result = new ArticleImportResultDTO();
+        result.setImported(articles.size());
+        result.setFailed(items.length - articles.size());
+        result.setItems(Arrays.asList(items));
+        return result;
+    }
+
+    private String validate(ArticleCreateDTO articleCreateDTO) {
+        if (articleCreateDTO == null) {
+            return "L'article ne doit pas être nul";
+        }
+        Set<ConstraintViolation<ArticleCreateDTO>> violations = validator.validate(articleCreateDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private String findMissingReference(ArticleCreateDTO articleCreateDTO, Map<Long, Category> categories, Map<Long, Image> images, Map<Long, Author> authors) {
+        if (!categories.containsKey(articleCreateDTO.getCategoryId())) {
+            return "La catégorie avec l'id " + articleCreateDTO.getCategoryId() + " n'existe pas :(";
+        }
+        for (ImageDTO image : articleCreateDTO.getImages()) {
+            if (image.getId() != null && !images.containsKey(image.getId())) {
+                return "L'image avec l'id " + image.getId() + " n'existe pas :(";
+            }
+        }
+        for (AuthorContributionDTO author : articleCreateDTO.getAuthors()) {
+            if (!authors.containsKey(author.getAuthorId())) {
+                return "L'auteur avec l'id " + author.getAuthorId() + " n'existe pas :(";
+            }
+        }
+        return null;
+    }
+}
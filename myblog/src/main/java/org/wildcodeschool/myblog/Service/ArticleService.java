@@ -1,57 +1,205 @@
 package org.wildcodeschool.myblog.Service;
 
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.wildcodeschool.myblog.config.CacheConfig;
 import org.wildcodeschool.myblog.dto.ArticleCreateDTO;
 import org.wildcodeschool.myblog.dto.ArticleDTO;
+import org.wildcodeschool.myblog.dto.ArticleSearchResultDTO;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
 import org.wildcodeschool.myblog.dto.AuthorContributionDTO;
+import org.wildcodeschool.myblog.dto.CursorPageDTO;
 import org.wildcodeschool.myblog.dto.ImageDTO;
 import org.wildcodeschool.myblog.exception.*;
+import org.wildcodeschool.myblog.feed.LatestArticlesFeed;
 import org.wildcodeschool.myblog.mapper.ArticleMapper;
 import org.wildcodeschool.myblog.model.*;
 import org.wildcodeschool.myblog.repository.*;
+import org.wildcodeschool.myblog.search.ArticleSearchIndex;
+import org.wildcodeschool.myblog.security.ArticleAuthorization;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ArticleService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final int EXCERPT_BACKFILL_BATCH_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleService.class);
+
     private final ArticleRepository articleRepository;
     private final ArticleMapper articleMapper;
     private final CategoryRepository categoryRepository;
     private final ImageRepository imageRepository;
+    private final ImageRegistry imageRegistry;
     private final AuthorRepository authorRepository;
     private final ArticleAuthorRepository articleAuthorRepository;
-    private final UserRepository userRepository;
+    private final ArticleAuthorization articleAuthorization;
+    private final ArticleSearchIndex articleSearchIndex;
+    private final LatestArticlesFeed latestArticlesFeed;
 
-    public ArticleService(ArticleRepository articleRepository, ArticleMapper articleMapper, CategoryRepository categoryRepository, ImageRepository imageRepository, AuthorRepository authorRepository, ArticleAuthorRepository articleAuthorRepository, UserRepository userRepository) {
+    public ArticleService(ArticleRepository articleRepository, ArticleMapper articleMapper, CategoryRepository categoryRepository, ImageRepository imageRepository, ImageRegistry imageRegistry, AuthorRepository authorRepository, ArticleAuthorRepository articleAuthorRepository, ArticleAuthorization articleAuthorization, ArticleSearchIndex articleSearchIndex, LatestArticlesFeed latestArticlesFeed) {
         this.articleRepository = articleRepository;
         this.articleMapper = articleMapper;
         this.categoryRepository = categoryRepository;
         this.imageRepository = imageRepository;
+        this.imageRegistry = imageRegistry;
         this.authorRepository = authorRepository;
         this.articleAuthorRepository = articleAuthorRepository;
-        this.userRepository = userRepository;
+        this.articleAuthorization = articleAuthorization;
+        this.articleSearchIndex = articleSearchIndex;
+        this.latestArticlesFeed = latestArticlesFeed;
+    }
+
+    //Articles written before the excerpt column existed get theirs, so that summaries never read the content
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillExcerpts() {
+        long lastId = 0;
+        int filled = 0;
+        List<Long> batch;
+        do {
+            batch = articleRepository.findIdsWithoutExcerptAfter(lastId, Limit.of(EXCERPT_BACKFILL_BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                filled += articleRepository.fillExcerpts(batch);
+                lastId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == EXCERPT_BACKFILL_BATCH_SIZE);
+        if (filled > 0) {
+            logger.info("Filled the excerpt of {} existing articles", filled);
+        }
+    }
+
+    //DTO for get a page of articles, newest first
+    public CursorPageDTO<ArticleDTO> getArticlesPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        // one extra row tells us whether a next page exists
+        Limit limit = Limit.of(pageSize + 1);
+        List<Article> articles;
+        if (cursor == null || cursor.isBlank()) {
+            articles = articleRepository.findByOrderByCreatedAtDescIdDesc(limit);
+        } else {
+            ArticleCursor after = ArticleCursor.decode(cursor);
+            articles = articleRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return toPage(articles, pageSize, article -> new ArticleCursor(article.getCreatedAt(), article.getId()), articleMapper::convertToDTO);
+    }
+
+    //version of a page of articles, to answer conditional GETs without loading it
+    public ResourceVersion getArticlesPageVersion(String cursor, Integer size) {
+        Limit limit = Limit.of(resolvePageSize(size) + 1);
+        List<ArticleVersion> versions;
+        if (cursor == null || cursor.isBlank()) {
+            versions = articleRepository.findVersionsByOrderByCreatedAtDescIdDesc(limit);
+        } else {
+            ArticleCursor after = ArticleCursor.decode(cursor);
+            versions = articleRepository.findVersionsAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        StringBuilder fingerprint = new StringBuilder();
+        LocalDateTime lastModified = null;
+        for (ArticleVersion version : versions) {
+            fingerprint.append(version.getId()).append('@').append(version.getUpdatedAt()).append(';');
+            if (lastModified == null || version.getUpdatedAt().isAfter(lastModified)) {
+                lastModified = version.getUpdatedAt();
+            }
+        }
+        return ResourceVersion.of(fingerprint.toString(), lastModified);
+    }
+
+    //DTO for get the latest articles of the home page, without touching the database
+    public List<ArticleSummaryDTO> getLatestArticles() {
+        return latestArticlesFeed.getLatest();
+    }
+
+    //DTO for get a page of article summaries, newest first
+    public CursorPageDTO<ArticleSummaryDTO> getArticleSummariesPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<ArticleSummaryDTO> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = articleRepository.findSummaries(limit);
+        } else {
+            ArticleCursor after = ArticleCursor.decode(cursor);
+            summaries = articleRepository.findSummariesAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return toPage(summaries, pageSize, summary -> new ArticleCursor(summary.getCreatedAt(), summary.getId()), Function.identity());
+    }
+
+    //DTO for get a page of the article summaries of a category, newest first
+    public CursorPageDTO<ArticleSummaryDTO> getCategoryArticleSummariesPage(Long categoryId, String cursor, Integer size) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new CategoryNotFoundException("La catégorie avec l'id " + categoryId + " n'existe pas :(");
+        }
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<ArticleSummaryDTO> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = articleRepository.findSummariesByCategory(categoryId, limit);
+        } else {
+            ArticleCursor after = ArticleCursor.decode(cursor);
+            summaries = articleRepository.findSummariesByCategoryAfter(categoryId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return toPage(summaries, pageSize, summary -> new ArticleCursor(summary.getCreatedAt(), summary.getId()), Function.identity());
+    }
+
+    private <T, R> CursorPageDTO<R> toPage(List<T> rows, int pageSize, Function<T, ArticleCursor> cursorOf, Function<T, R> mapper) {
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            next = cursorOf.apply(rows.get(pageSize - 1)).encode();
+        }
+        List<R> items = rows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPageDTO<>(items, next);
     }
 
-    //DTO for get all articles
-    public List<ArticleDTO> getAllArticles() {
-        List<Article> articles = articleRepository.findAll();
-        return  articles.stream().map(articleMapper::convertToDTO).collect(Collectors.toList());
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    //DTO for search articles by title and content, best matches first
+    public List<ArticleSearchResultDTO> searchArticles(String query, Integer limit) {
+        int resultLimit = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return articleSearchIndex.search(query, resultLimit);
+    }
+
+    //version of an article, to answer conditional GETs without loading it
+    public ResourceVersion getArticleVersion(Long id) {
+        LocalDateTime updatedAt = articleRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("L'article avec l'id " + id + " n'a pas été trouvé :("));
+        return ResourceVersion.of(id + "@" + updatedAt, updatedAt);
     }
 
     //DTO for get article by id
+    @Cacheable(value = CacheConfig.ARTICLES, key = "#id")
     public ArticleDTO getArticleById(Long id) {
-        Article article = articleRepository.findById(id)
+        Article article = articleRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("L'article avec l'id " + id + " n'a pas été trouvé :("));
         return articleMapper.convertToDTO(article);
     }
 
     //DTO for create an article
+    @Transactional
+    @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, allEntries = true)
     public ArticleDTO createArticle(@Valid ArticleCreateDTO articleCreateDTO) {
         Article article = articleMapper.convertToEntity(articleCreateDTO);
         article.setCreatedAt(LocalDateTime.now());
@@ -62,17 +210,20 @@ public class ArticleService {
                     .orElseThrow(()-> new CategoryNotFoundException("La catégorie avec l'id " + article.getCategory().getId() +" n'existe pas :("));
             article.setCategory(category);
 
-        //add images
-            List<Image> validImages = new ArrayList<>();
+        //add images, a url already stored reuses its image
+            List<String> imageUrls = articleCreateDTO.getImages().stream()
+                    .filter(image -> image.getId() == null)
+                    .map(ImageDTO::getUrl)
+                    .toList();
+            Map<String, Image> registeredImages = imageRegistry.resolve(imageUrls);
+            Set<Image> validImages = new LinkedHashSet<>();
             for (ImageDTO image : articleCreateDTO.getImages()) {
                 if (image.getId() != null) {
                     Image existingImage = imageRepository.findById(image.getId())
                             .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + image.getId() + " n'existe pas :("));
                         validImages.add(existingImage);
                 } else {
-                    Image newImage = new Image();
-                    newImage.setUrl(image.getUrl());
-                    validImages.add(imageRepository.save(newImage));
+                    validImages.add(registeredImages.get(image.getUrl()));
                 }
             }
             article.setImages(validImages);
@@ -95,20 +246,26 @@ public class ArticleService {
             }
             article.setArticleAuthors(articleAuthors);
 
+        Long articleId = savedArticle.getId();
+        String title = savedArticle.getTitle();
+        String content = savedArticle.getContent();
+        AfterCommit.run(() -> articleSearchIndex.index(articleId, title, content));
+        ArticleSummaryDTO summary = articleMapper.convertToSummaryDTO(savedArticle);
+        AfterCommit.run(() -> latestArticlesFeed.add(summary));
         return articleMapper.convertToDTO(savedArticle);
     }
 
     //DTO for update an article
-    public ArticleDTO updateArticle(Long id, Article articleDetails, String userEmail){
-        Article article = articleRepository.findById(id)
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ARTICLES, key = "#id"),
+            @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, allEntries = true)
+    })
+    public ArticleDTO updateArticle(Long id, Article articleDetails, Authentication authentication){
+        Article article = articleRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("L'article avec l'id " + id + " n'a pas été trouvé :("));
 
-        User user = userRepository.findByEmail(userEmail).orElseThrow(()-> new ResourceNotFoundException("user not found"));
-
-        boolean isAdmin = user.getRoles().contains("ROLE_ADMIN");
-        boolean isAuthor = user.getRoles().contains("ROLE_AUTHOR");
-
-        if (!isAdmin && !isAuthor) {
+        if (!articleAuthorization.canUpdate(authentication, id)) {
             throw new AccessDeniedException("");
         }
 
@@ -125,67 +282,109 @@ public class ArticleService {
         if(articleDetails.getTitle().length() > 50) {
             throw new ExceededMaxLengthException("Le titre ne peux pas dépasser 50 caractères");
         }
-        //update images
-        if (article.getImages() != null) {
-            List<Image> validImages = new ArrayList<>();
-            for (Image image : article.getImages()) {
+        //update images: only the links that appear or disappear are written
+        if (articleDetails.getImages() != null) {
+            Set<Long> requestedImageIds = new HashSet<>();
+            List<String> imageUrls = new ArrayList<>();
+            for (Image image : articleDetails.getImages()) {
                 if (image.getId() != null) {
-                    Image existingImage = imageRepository.findById(image.getId())
-                            .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + image.getId() + " n'existe pas :("));
-                    if (existingImage != null) {
-                        validImages.add(existingImage);
-                    }
+                    requestedImageIds.add(image.getId());
                 } else {
-                    Image savedImage = imageRepository.save(image);
-                    validImages.add(savedImage);
+                    imageUrls.add(image.getUrl());
                 }
             }
-            article.setImages(validImages);
-        } else {
-            article.getImages().clear();
+            Collection<Image> registeredImages = imageRegistry.resolve(imageUrls).values();
+            Set<Long> keptImageIds = new HashSet<>(requestedImageIds);
+            registeredImages.forEach(image -> keptImageIds.add(image.getId()));
+
+            Set<Long> currentImageIds = article.getImages().stream().map(Image::getId).collect(Collectors.toSet());
+            Set<Long> addedImageIds = new HashSet<>(requestedImageIds);
+            addedImageIds.removeAll(currentImageIds);
+            List<Image> addedImages = imageRepository.findAllById(addedImageIds);
+            if (addedImages.size() < addedImageIds.size()) {
+                addedImages.forEach(image -> addedImageIds.remove(image.getId()));
+                Long missingId = addedImageIds.iterator().next();
+                throw new ImageNotFoundException("L'image avec l'id " + missingId + " n'existe pas :(");
+            }
+
+            article.getImages().removeIf(image -> !keptImageIds.contains(image.getId()));
+            article.getImages().addAll(addedImages);
+            article.getImages().addAll(registeredImages);
         }
 
-        //update authors
+        //update authors: rows are deleted, updated or inserted only when they differ
         if (articleDetails.getArticleAuthors() != null) {
-            articleAuthorRepository.deleteAll(article.getArticleAuthors());
-
-            List<ArticleAuthor> updatedArticleAuthors = new ArrayList<>();
-
+            Map<Long, String> requestedContributions = new LinkedHashMap<>();
             for (ArticleAuthor articleAuthorDetails : articleDetails.getArticleAuthors()) {
-               Author author = authorRepository.findById(articleAuthorDetails.getAuthor().getId())
-                        .orElseThrow(()-> new AuthorNotFoundException("L'auteur avec l'id " + articleAuthorDetails.getAuthor().getId() + " n'existe pas :("));
+                requestedContributions.put(articleAuthorDetails.getAuthor().getId(), articleAuthorDetails.getContribution());
+            }
 
+            Map<Long, ArticleAuthor> keptArticleAuthors = new HashMap<>();
+            List<ArticleAuthor> removedArticleAuthors = new ArrayList<>();
+            for (ArticleAuthor articleAuthor : article.getArticleAuthors()) {
+                Long authorId = articleAuthor.getAuthor().getId();
+                if (requestedContributions.containsKey(authorId) && !keptArticleAuthors.containsKey(authorId)) {
+                    keptArticleAuthors.put(authorId, articleAuthor);
+                } else {
+                    removedArticleAuthors.add(articleAuthor);
+                }
+            }
+
+            Set<Long> addedAuthorIds = new HashSet<>(requestedContributions.keySet());
+            addedAuthorIds.removeAll(keptArticleAuthors.keySet());
+            Map<Long, Author> addedAuthors = authorRepository.findAllById(addedAuthorIds).stream()
+                    .collect(Collectors.toMap(Author::getId, Function.identity()));
+
+            List<ArticleAuthor> addedArticleAuthors = new ArrayList<>();
+            for (Map.Entry<Long, String> contribution : requestedContributions.entrySet()) {
+                ArticleAuthor keptArticleAuthor = keptArticleAuthors.get(contribution.getKey());
+                if (keptArticleAuthor != null) {
+                    // dirty checking issues an UPDATE only if the contribution changed
+                    keptArticleAuthor.setContribution(contribution.getValue());
+                    continue;
+                }
+                Author author = addedAuthors.get(contribution.getKey());
+                if (author == null) {
+                    throw new AuthorNotFoundException("L'auteur avec l'id " + contribution.getKey() + " n'existe pas :(");
+                }
                 ArticleAuthor newArticleAuthor = new ArticleAuthor();
                 newArticleAuthor.setAuthor(author);
                 newArticleAuthor.setArticle(article);
-                newArticleAuthor.setContribution(articleAuthorDetails.getContribution());
-
-                updatedArticleAuthors.add(newArticleAuthor);
+                newArticleAuthor.setContribution(contribution.getValue());
+                addedArticleAuthors.add(newArticleAuthor);
             }
 
-            articleAuthorRepository.saveAll(updatedArticleAuthors);
-
-            article.setArticleAuthors(updatedArticleAuthors);
+            articleAuthorRepository.deleteAll(removedArticleAuthors);
+            articleAuthorRepository.saveAll(addedArticleAuthors);
+            article.getArticleAuthors().removeAll(removedArticleAuthors);
+            article.getArticleAuthors().addAll(addedArticleAuthors);
         }
 
         Article updatedArticle = articleRepository.save(article);
+        Long articleId = updatedArticle.getId();
+        String title = updatedArticle.getTitle();
+        String content = updatedArticle.getContent();
+        AfterCommit.run(() -> articleSearchIndex.index(articleId, title, content));
+        ArticleSummaryDTO summary = articleMapper.convertToSummaryDTO(updatedArticle);
+        AfterCommit.run(() -> latestArticlesFeed.replace(summary));
         return articleMapper.convertToDTO(updatedArticle);
     }
 
     //DTO for delete article/author
-    public void deleteArticle(Long id, String userEmail) {
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ARTICLES, key = "#id"),
+            @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, allEntries = true)
+    })
+    public void deleteArticle(Long id, Authentication authentication) {
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("L'article avec l'id " + id + " n'existe pas :("));
 
-        User user = userRepository.findByEmail(userEmail).orElseThrow(()-> new ResourceNotFoundException("user not found"));
-
-        boolean isAdmin = user.getRoles().contains("ROLE_ADMIN");
-        boolean isAuthor = user.getRoles().contains("ROLE_AUTHOR");
-
-        if (!isAdmin && !isAuthor) {
+        if (!articleAuthorization.canDelete(authentication, id)) {
             throw new AccessDeniedException("");
         }
         articleAuthorRepository.deleteAll(article.getArticleAuthors());
         articleRepository.delete(article);
+        AfterCommit.run(() -> articleSearchIndex.remove(id));
+        AfterCommit.run(() -> latestArticlesFeed.remove(id));
     }
 }
\ No newline at end of file
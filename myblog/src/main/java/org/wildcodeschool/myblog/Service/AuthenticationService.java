@@ -1,26 +1,63 @@
 package org.wildcodeschool.myblog.Service;
 
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.wildcodeschool.myblog.dto.AuthTokensDTO;
+import org.wildcodeschool.myblog.exception.PasswordEncoderBusyException;
+import org.wildcodeschool.myblog.model.User;
+import org.wildcodeschool.myblog.security.TokenRevocationList;
+import org.wildcodeschool.myblog.security.VerifiedToken;
 
 @Service
 public class AuthenticationService {
 
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
 
-    public AuthenticationService(JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthenticationService(JwtService jwtService, AuthenticationManager authenticationManager,
+                                 RefreshTokenService refreshTokenService, TokenRevocationList tokenRevocationList) {
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
-    public String authenticate(String email, String password) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(email, password)
-        );
-        return jwtService.generateToken((UserDetails) authentication.getPrincipal());
+    public AuthTokensDTO authenticate(String email, String password) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(email, password)
+            );
+        } catch (InternalAuthenticationServiceException e) {
+            // an unknown email still goes through the encoder, a full pool is reported as such
+            if (e.getCause() instanceof PasswordEncoderBusyException busy) {
+                throw busy;
+            }
+            throw e;
+        }
+        return issueTokens((User) authentication.getPrincipal());
+    }
+
+    //rotation: the refresh token is used once and replaced
+    public AuthTokensDTO refresh(String refreshToken) {
+        return issueTokens(refreshTokenService.consume(refreshToken));
+    }
+
+    //the access token is revoked until it would have expired, the refresh token is deleted
+    public void logout(String refreshToken, Authentication authentication) {
+        refreshTokenService.revoke(refreshToken);
+        if (authentication != null && authentication.getDetails() instanceof VerifiedToken token) {
+            tokenRevocationList.revoke(token.getId(), token.getExpiresAt());
+        }
+    }
+
+    private AuthTokensDTO issueTokens(User user) {
+        String accessToken = jwtService.generateToken(user);
+        return new AuthTokensDTO(accessToken, refreshTokenService.issue(user), jwtService.getExpirationTime() / 1000);
     }
 }
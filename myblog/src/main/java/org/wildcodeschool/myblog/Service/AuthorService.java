@@ -1,24 +1,45 @@
 package org.wildcodeschool.myblog.Service;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.config.CacheConfig;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
 import org.wildcodeschool.myblog.dto.AuthorDTO;
+import org.wildcodeschool.myblog.dto.AuthorProfileDTO;
 import org.wildcodeschool.myblog.exception.AuthorNotFoundException;
 import org.wildcodeschool.myblog.exception.ExceededMaxLengthException;
 import org.wildcodeschool.myblog.mapper.AuthorMapper;
 import org.wildcodeschool.myblog.model.Author;
+import org.wildcodeschool.myblog.repository.ArticleAuthorRepository;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
+import org.wildcodeschool.myblog.repository.AuthorContribution;
 import org.wildcodeschool.myblog.repository.AuthorRepository;
+import org.wildcodeschool.myblog.search.AuthorSuggestIndex;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class AuthorService {
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 50;
 
     private final AuthorRepository authorRepository;
+    private final ArticleAuthorRepository articleAuthorRepository;
+    private final ArticleRepository articleRepository;
+    private final AuthorSuggestIndex authorSuggestIndex;
     private final AuthorMapper authorMapper;
 
-    public AuthorService(AuthorRepository authorRepository, AuthorMapper authorMapper) {
+    public AuthorService(AuthorRepository authorRepository, ArticleAuthorRepository articleAuthorRepository, ArticleRepository articleRepository, AuthorSuggestIndex authorSuggestIndex, AuthorMapper authorMapper) {
         this.authorRepository = authorRepository;
+        this.articleAuthorRepository = articleAuthorRepository;
+        this.articleRepository = articleRepository;
+        this.authorSuggestIndex = authorSuggestIndex;
         this.authorMapper = authorMapper;
     }
 
@@ -28,6 +49,12 @@ public class AuthorService {
         return authors.stream().map(authorMapper::convertToDTO).collect(Collectors.toList());
     }
 
+    //DTO for the autocomplete of the editor, answered from memory
+    public List<AuthorDTO> suggestAuthors(String prefix, Integer limit) {
+        int resolvedLimit = limit == null ? DEFAULT_SUGGEST_LIMIT : Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT));
+        return authorSuggestIndex.suggest(prefix, resolvedLimit);
+    }
+
     //DTO for get author by id
     public AuthorDTO getAuthorById(Long id) {
         Author author = authorRepository.findById(id)
@@ -35,6 +62,18 @@ public class AuthorService {
         return authorMapper.convertToDTO(author);
     }
 
+    //DTO for the profile of an author: two queries over article_author, whatever the number of articles
+    @Cacheable(value = CacheConfig.AUTHOR_PROFILES, key = "#id")
+    @Transactional(readOnly = true)
+    public AuthorProfileDTO getAuthorProfile(Long id) {
+        Author author = authorRepository.findById(id)
+                .orElseThrow(()-> new AuthorNotFoundException("L'auteur avec l'id " + id + " n'existe pas :("));
+        List<AuthorContribution> contributions = articleAuthorRepository.findContributionsByAuthorId(id);
+        ArticleSummaryDTO latestArticle = contributions.isEmpty() ? null
+                : articleAuthorRepository.findLatestSummariesByAuthorId(id, Limit.of(1)).stream().findFirst().orElse(null);
+        return authorMapper.convertToProfileDTO(author, contributions, latestArticle);
+    }
+
     //DTO for create an author
     public AuthorDTO createAuthor(Author author) {
         Author savedAuthor = authorRepository.save(author);
@@ -43,10 +82,16 @@ public class AuthorService {
         } else if (author.getLastname().length() > 50) {
             throw new ExceededMaxLengthException("Le nom ne peux pas dépasser 50 caractères");
         }
+        authorSuggestIndex.index(savedAuthor.getId(), savedAuthor.getFirstname(), savedAuthor.getLastname());
         return authorMapper.convertToDTO(savedAuthor);
     }
 
-    //DTO for update an author
+    //DTO for update an author, cached articles and its profile embed its names
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ARTICLES, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, key = "#id")
+    })
+    @Transactional
     public AuthorDTO updateAuthor(Long id, Author authorDetails) {
         Author author = authorRepository.findById(id)
                 .orElseThrow(()-> new AuthorNotFoundException("L'auteur avec l'id " + id + " n'existe pas :("));
@@ -60,14 +105,27 @@ public class AuthorService {
         }
 
         Author updatedAuthor = authorRepository.save(author);
+        articleRepository.touchByAuthorId(id, LocalDateTime.now());
+        String firstname = updatedAuthor.getFirstname();
+        String lastname = updatedAuthor.getLastname();
+        // a rolled back rename must not leave its keys in the index
+        AfterCommit.run(() -> authorSuggestIndex.index(id, firstname, lastname));
         return authorMapper.convertToDTO(updatedAuthor);
     }
 
     //DTO for delete an author
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ARTICLES, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, key = "#id")
+    })
+    @Transactional
     public boolean deleteAuthor(Long id) {
         Author author = authorRepository.findById(id)
                 .orElseThrow(()-> new AuthorNotFoundException("L'auteur avec l'id " + id + " n'existe pas :("));
+            articleRepository.touchByAuthorId(id, LocalDateTime.now());
             authorRepository.delete(author);
+            // the delete fails at commit while articles still reference the author, the author stays suggested then
+            AfterCommit.run(() -> authorSuggestIndex.remove(id));
             return true;
     }
 }
@@ -1,38 +1,46 @@
 package org.wildcodeschool.myblog.Service;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.config.CacheConfig;
 import org.wildcodeschool.myblog.dto.CategoryDTO;
 import org.wildcodeschool.myblog.exception.CategoryNotFoundException;
 import org.wildcodeschool.myblog.exception.ExceededMaxLengthException;
+import org.wildcodeschool.myblog.feed.LatestArticlesFeed;
 import org.wildcodeschool.myblog.mapper.CategoryMapper;
 import org.wildcodeschool.myblog.model.Category;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
 import org.wildcodeschool.myblog.repository.CategoryRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ArticleRepository articleRepository;
     private final CategoryMapper categoryMapper;
+    private final LatestArticlesFeed latestArticlesFeed;
 
-    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    public CategoryService(CategoryRepository categoryRepository, ArticleRepository articleRepository, CategoryMapper categoryMapper, LatestArticlesFeed latestArticlesFeed) {
         this.categoryRepository = categoryRepository;
+        this.articleRepository = articleRepository;
         this.categoryMapper = categoryMapper;
+        this.latestArticlesFeed = latestArticlesFeed;
     }
 
-    //DTO for get all categories
+    //DTO for get all categories, with the number of articles of each
     public List<CategoryDTO> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream().map(categoryMapper::convertToDTO).collect(Collectors.toList());
+        return categoryRepository.findAllWithArticleCount();
     }
 
     //DTO for get category by id
     public CategoryDTO getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return categoryRepository.findWithArticleCountById(id)
                 .orElseThrow(()-> new CategoryNotFoundException("La catégorie avec l'id " + id +" n'existe pas :("));
-        return categoryMapper.convertToDTO(category);
     }
 
     //DTO for create a category
@@ -41,10 +49,15 @@ public class CategoryService {
             throw new ExceededMaxLengthException("Le nom ne peux pas dépasser 50 caractères");
         }
         Category savedCategory = categoryRepository.save(category);
-        return categoryMapper.convertToDTO(savedCategory);
+        return categoryMapper.convertToDTO(savedCategory, 0);
     }
 
-    //DTO for update a category
+    //DTO for update a category, cached articles and author profiles embed its name
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ARTICLES, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, allEntries = true)
+    })
+    @Transactional
     public CategoryDTO updateCategory(Long id, Category categoryDetails) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(()-> new CategoryNotFoundException("La catégorie avec l'id " + id +" n'existe pas :("));
@@ -53,14 +66,24 @@ public class CategoryService {
             throw new ExceededMaxLengthException("Le nom ne peux pas dépasser 50 caractères");
         }
         Category savedCategory = categoryRepository.save(category);
-        return categoryMapper.convertToDTO(savedCategory);
+        articleRepository.touchByCategoryId(id, LocalDateTime.now());
+        // the feed shows the name of the category of each article
+        AfterCommit.run(latestArticlesFeed::reload);
+        return categoryMapper.convertToDTO(savedCategory, articleRepository.countByCategoryId(id));
     }
 
     //DTO for delete category
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ARTICLES, allEntries = true),
+            @CacheEvict(value = CacheConfig.AUTHOR_PROFILES, allEntries = true)
+    })
+    @Transactional
     public boolean deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException("La catégorie avec l'id " + id + " n'existe pas :("));
+        articleRepository.touchByCategoryId(id, LocalDateTime.now());
         categoryRepository.delete(category);
+        AfterCommit.run(latestArticlesFeed::reload);
         return true;
     }
 }
@@ -1,23 +1,46 @@
 package org.wildcodeschool.myblog.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.wildcodeschool.myblog.config.CacheConfig;
+import org.wildcodeschool.myblog.model.User;
 import org.wildcodeschool.myblog.repository.UserRepository;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final Timer loadTimer;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.loadTimer = Timer.builder("users.details.load")
+                .description("Time spent loading a user from the database on a cache miss")
+                .register(meterRegistry);
     }
 
+    //cached by email, UserService evicts the entry when the user changes
     @Override
+    @Cacheable(value = CacheConfig.USERS, key = "#email")
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return  userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + email));
+        return loadTimer.record(() -> userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + email)));
+    }
+
+    //called by Spring after a successful login when the stored hash uses an older BCrypt cost
+    @Override
+    @CacheEvict(value = CacheConfig.USERS, key = "#user.username")
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User existingUser = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + user.getUsername()));
+        existingUser.setPassword(newPassword);
+        return userRepository.save(existingUser);
     }
 }
@@ -0,0 +1,182 @@
+package org.wildcodeschool.myblog.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.wildcodeschool.myblog.model.Image;
+import org.wildcodeschool.myblog.repository.ImageRepository;
+
+import java.time.Duration;
+import java.util.*;
+
+//One Image row per normalized url. Urls are resolved in batch: the hash->id cache first,
+//then one query for the misses, then one insert for the urls never seen.
+@Service
+public class ImageRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRegistry.class);
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final ImageRepository imageRepository;
+    private final TransactionTemplate newTransaction;
+    private final Cache<String, Long> ids;
+
+    public ImageRegistry(ImageRepository imageRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                         @Value("${images.registry.cache-size}") long cacheSize,
+                         @Value("${images.registry.time-to-live}") Duration timeToLive) {
+        this.imageRepository = imageRepository;
+        // inserts commit on their own so that a url inserted concurrently only fails that insert, not the caller
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                // bounds how long an id deleted behind the registry's back can be handed out
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ids, "images.registry");
+    }
+
+    //the image of each url, in the order of the urls. Known images are references, they are not loaded.
+    //Must run inside the caller's transaction.
+    public Map<String, Image> resolve(Collection<String> urls) {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (String url : urls) {
+            hashes.putIfAbsent(url, Image.hashUrl(url));
+        }
+        if (hashes.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Long> found = new HashMap<>(ids.getAllPresent(hashes.values()));
+        Map<String, String> missing = new LinkedHashMap<>();
+        hashes.forEach((url, hash) -> {
+            if (!found.containsKey(hash)) {
+                missing.putIfAbsent(hash, url);
+            }
+        });
+        if (!missing.isEmpty()) {
+            for (Image image : imageRepository.findByUrlHashIn(missing.keySet())) {
+                found.put(image.getUrlHash(), image.getId());
+                missing.remove(image.getUrlHash());
+            }
+            if (!missing.isEmpty()) {
+                Map<String, Long> inserted = insert(missing);
+                found.putAll(inserted);
+                forgetOnRollback(inserted.keySet());
+            }
+            ids.putAll(found);
+        }
+
+        Map<String, Image> images = new LinkedHashMap<>();
+        hashes.forEach((url, hash) -> images.put(url, imageRepository.getReferenceById(found.get(hash))));
+        return images;
+    }
+
+    //a changed or deleted image must not be handed out for its old url
+    public void evict(Image image) {
+        if (image.getUrlHash() != null) {
+            ids.invalidate(image.getUrlHash());
+        }
+    }
+
+    public void evictUrlHashes(Collection<String> urlHashes) {
+        ids.invalidateAll(urlHashes);
+    }
+
+    //the inserted rows are committed already but no article of a rolled back caller uses them:
+    //the orphan collector will delete them, they must not be handed out until then
+    private void forgetOnRollback(Set<String> insertedHashes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    ids.invalidateAll(insertedHashes);
+                }
+            }
+        });
+    }
+
+    private Map<String, Long> insert(Map<String, String> urlsByHash) {
+        try {
+            return newTransaction.execute(status -> {
+                List<Image> newImages = new ArrayList<>();
+                urlsByHash.values().forEach(url -> newImages.add(newImage(url)));
+                Map<String, Long> inserted = new HashMap<>();
+                imageRepository.saveAll(newImages).forEach(image -> inserted.put(image.getUrlHash(), image.getId()));
+                return inserted;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another request inserted one of these urls first, take them one by one
+            Map<String, Long> inserted = new HashMap<>();
+            urlsByHash.forEach((hash, url) -> inserted.put(hash, insertOne(hash, url)));
+            return inserted;
+        }
+    }
+
+    private Long insertOne(String hash, String url) {
+        try {
+            return newTransaction.execute(status -> imageRepository.findByUrlHash(hash)
+                    .orElseGet(() -> imageRepository.save(newImage(url)))
+                    .getId());
+        } catch (DataIntegrityViolationException e) {
+            return newTransaction.execute(status -> imageRepository.findByUrlHash(hash).orElseThrow().getId());
+        }
+    }
+
+    private static Image newImage(String url) {
+        Image image = new Image();
+        image.setUrl(url);
+        return image;
+    }
+
+    //Images stored before url_hash existed get their hash. When several rows share a url, the oldest takes
+    //the hash and the others keep none: they stay linked to their articles but are never handed out again.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long lastId = 0;
+        int hashed = 0;
+        while (true) {
+            long after = lastId;
+            long[] progress = newTransaction.execute(status -> {
+                List<Image> batch = imageRepository.findByUrlHashIsNullAndIdGreaterThanOrderByIdAsc(after, Limit.of(BACKFILL_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    return null;
+                }
+                Map<String, Image> firstByHash = new LinkedHashMap<>();
+                for (Image image : batch) {
+                    firstByHash.putIfAbsent(Image.hashUrl(image.getUrl()), image);
+                }
+                imageRepository.findByUrlHashIn(firstByHash.keySet()).forEach(image -> firstByHash.remove(image.getUrlHash()));
+                // written by dirty checking on commit
+                firstByHash.forEach((hash, image) -> image.setUrlHash(hash));
+                return new long[]{batch.get(batch.size() - 1).getId(), firstByHash.size()};
+            });
+            if (progress == null) {
+                break;
+            }
+            lastId = progress[0];
+            hashed += (int) progress[1];
+        }
+        if (hashed > 0) {
+            logger.info("Computed the url hash of {} existing images", hashed);
+        }
+    }
+}
@@ -1,61 +1,238 @@
 package org.wildcodeschool.myblog.Service;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.wildcodeschool.myblog.config.CacheConfig;
+import org.wildcodeschool.myblog.dto.CursorPageDTO;
 import org.wildcodeschool.myblog.dto.ImageDTO;
+import org.wildcodeschool.myblog.exception.AlreadyExistsException;
 import org.wildcodeschool.myblog.exception.ImageNotFoundException;
+import org.wildcodeschool.myblog.exception.InvalidCursorException;
+import org.wildcodeschool.myblog.exception.InvalidImageException;
 import org.wildcodeschool.myblog.mapper.ImageMapper;
 import org.wildcodeschool.myblog.model.Image;
+import org.wildcodeschool.myblog.model.ImageVariant;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
+import org.wildcodeschool.myblog.repository.ImageArticleLink;
+import org.wildcodeschool.myblog.repository.ImageDerivativeJobRepository;
 import org.wildcodeschool.myblog.repository.ImageRepository;
+import org.wildcodeschool.myblog.repository.ImageVariantRepository;
+import org.wildcodeschool.myblog.storage.ImageDerivativePipeline;
+import org.wildcodeschool.myblog.storage.ImageStore;
+import org.wildcodeschool.myblog.storage.StoredImage;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class ImageService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> UPLOAD_CONTENT_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+
     private final ImageRepository imageRepository;
+    private final ArticleRepository articleRepository;
+    private final ImageRegistry imageRegistry;
+    private final ImageStore imageStore;
+    private final ImageVariantRepository imageVariantRepository;
+    private final ImageDerivativeJobRepository imageDerivativeJobRepository;
+    private final ImageDerivativePipeline imageDerivativePipeline;
     private final ImageMapper imageMapper;
+    private final TransactionTemplate newTransaction;
 
-    public ImageService(ImageRepository imageRepository, ImageMapper imageMapper) {
+    public ImageService(ImageRepository imageRepository, ArticleRepository articleRepository, ImageRegistry imageRegistry, ImageStore imageStore,
+                        ImageVariantRepository imageVariantRepository, ImageDerivativeJobRepository imageDerivativeJobRepository,
+                        ImageDerivativePipeline imageDerivativePipeline, ImageMapper imageMapper, PlatformTransactionManager transactionManager) {
         this.imageRepository = imageRepository;
+        this.articleRepository = articleRepository;
+        this.imageRegistry = imageRegistry;
+        this.imageStore = imageStore;
+        this.imageVariantRepository = imageVariantRepository;
+        this.imageDerivativeJobRepository = imageDerivativeJobRepository;
+        this.imageDerivativePipeline = imageDerivativePipeline;
         this.imageMapper = imageMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    //DTO for get all images
-    public List<ImageDTO> getAllImages() {
-        List<Image> images = imageRepository.findAll();
-        return images.stream().map(imageMapper::convertToDTO).collect(Collectors.toList());
+    //DTO for a page of images: one query for the images, one for their article ids, one for their variants
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ImageDTO> getImagesPage(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidCursorException("Le curseur de pagination est invalide");
+            }
+        }
+
+        List<Image> images = imageRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        String next = null;
+        if (images.size() > pageSize) {
+            images = images.subList(0, pageSize);
+            String lastId = images.get(pageSize - 1).getId().toString();
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+        }
+        Map<Long, List<Long>> articleIds = findArticleIds(images.stream().map(Image::getId).toList());
+        List<ImageDTO> items = images.stream()
+                .map(image -> imageMapper.convertToDTO(image, articleIds.getOrDefault(image.getId(), List.of())))
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, next);
     }
 
     //DTO for get image by id
+    @Transactional(readOnly = true)
     public ImageDTO getImageById(Long id) {
         Image image = imageRepository.findById(id)
                 .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + id + " n'existe pas :("));
         if (image == null) {
             return null;
         }
-        return imageMapper.convertToDTO(image);
+        return toDTO(image);
+    }
+
+    private ImageDTO toDTO(Image image) {
+        return imageMapper.convertToDTO(image, findArticleIds(List.of(image.getId())).getOrDefault(image.getId(), List.of()));
+    }
+
+    private Map<Long, List<Long>> findArticleIds(List<Long> imageIds) {
+        if (imageIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<Long>> articleIds = new HashMap<>();
+        for (ImageArticleLink link : imageRepository.findArticleLinks(imageIds)) {
+            articleIds.computeIfAbsent(link.getImageId(), imageId -> new ArrayList<>()).add(link.getArticleId());
+        }
+        return articleIds;
     }
 
-    //DTO for create an image
+    //DTO for create an image, an url already stored returns the existing image
+    @Transactional
     public ImageDTO createImage(Image image) {
-        Image savedImage = imageRepository.save(image);
-        return imageMapper.convertToDTO(savedImage);
+        Image savedImage = imageRegistry.resolve(List.of(image.getUrl())).get(image.getUrl());
+        return toDTO(savedImage);
+    }
+
+    //DTO for an uploaded image, the same bytes uploaded twice give the same image
+    @Transactional
+    public ImageDTO uploadImage(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new InvalidImageException("Le fichier envoyé est vide :(");
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !UPLOAD_CONTENT_TYPES.contains(contentType)) {
+            throw new InvalidImageException("Seules les images PNG, JPEG, GIF et WebP sont acceptées :(");
+        }
+
+        StoredImage storedImage;
+        try (InputStream content = file.getInputStream()) {
+            storedImage = imageStore.store(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // nothing is read before the insert commits, so that this transaction sees the row whoever inserted it
+        Long id = findOrInsert(storedImage, contentType);
+        Image image = imageRepository.findById(id)
+                .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + id + " n'existe pas :("));
+        return toDTO(image);
+    }
+
+    //the id of the image with these bytes, inserted in its own transaction when new.
+    //The same bytes uploaded concurrently make one of the inserts fail on content_hash, that one takes the other row.
+    private Long findOrInsert(StoredImage storedImage, String contentType) {
+        try {
+            return newTransaction.execute(status -> imageRepository.findByContentHash(storedImage.getContentHash())
+                    .orElseGet(() -> {
+                        Image image = new Image();
+                        image.setUrl("/images/upload/" + storedImage.getContentHash());
+                        image.setContentHash(storedImage.getContentHash());
+                        image.setContentType(contentType);
+                        image.setContentLength(storedImage.getSize());
+                        image = imageRepository.save(image);
+                        // the id is known once inserted, the url is updated on commit
+                        image.setUrl("/images/" + image.getId() + "/raw");
+                        imageDerivativePipeline.enqueue(image);
+                        return image;
+                    })
+                    .getId());
+        } catch (DataIntegrityViolationException e) {
+            return newTransaction.execute(status -> imageRepository.findByContentHash(storedImage.getContentHash()))
+                    .orElseThrow(() -> e)
+                    .getId();
+        }
+    }
+
+    //an image whose bytes are stored here
+    public Image getStoredImage(Long id) {
+        Image image = imageRepository.findById(id)
+                .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + id + " n'existe pas :("));
+        if (image.getContentHash() == null || !imageStore.exists(image.getContentHash())) {
+            throw new ImageNotFoundException("L'image avec l'id " + id + " n'est pas stockée sur ce serveur :(");
+        }
+        return image;
     }
 
-    //DTO for update an image
+    //a resized copy of an uploaded image, once the pipeline made it
+    public ImageVariant getStoredVariant(Long id, int width) {
+        return imageVariantRepository.findByImageIdAndWidth(id, width)
+                .filter(variant -> imageStore.exists(variant.getContentHash()))
+                .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + id + " n'a pas de version en " + width + " px :("));
+    }
+
+    //DTO for update an image, cached articles embed its url
+    @CacheEvict(value = CacheConfig.ARTICLES, allEntries = true)
+    @Transactional
     public ImageDTO updateImage(Long id, Image imageDetails) {
         Image image = imageRepository.findById(id)
                 .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + id + " n'existe pas :("));
+        String urlHash = Image.hashUrl(imageDetails.getUrl());
+        imageRepository.findByUrlHash(urlHash)
+                .filter(existingImage -> !existingImage.getId().equals(id))
+                .ifPresent(existingImage -> {
+                    throw new AlreadyExistsException("L'image avec l'url " + imageDetails.getUrl() + " existe déjà :(");
+                });
+        imageRegistry.evict(image);
         image.setUrl(imageDetails.getUrl());
         Image savedImage = imageRepository.save(image);
-        return imageMapper.convertToDTO(savedImage);
+        articleRepository.touchByImageId(id, LocalDateTime.now());
+        return toDTO(savedImage);
     }
 
     //DTO for delete image
+    @CacheEvict(value = CacheConfig.ARTICLES, allEntries = true)
     public boolean deleteImage(Long id) {
         Image image = imageRepository.findById(id)
                 .orElseThrow(()-> new ImageNotFoundException("L'image avec l'id " + id + " n'existe pas :("));
+        articleRepository.touchByImageId(id, LocalDateTime.now());
+        List<ImageVariant> variants = imageVariantRepository.findByImageId(id);
+        imageRegistry.evict(image);
+        imageDerivativeJobRepository.deleteByImageId(id);
         imageRepository.delete(image);
+        if (image.getContentHash() != null) {
+            imageStore.delete(image.getContentHash());
+        }
+        // a variant file is only shared when another upload has the very same bytes
+        for (ImageVariant variant : variants) {
+            if (imageRepository.findByContentHash(variant.getContentHash()).isEmpty()
+                    && !imageVariantRepository.existsByContentHash(variant.getContentHash())) {
+                imageStore.delete(variant.getContentHash());
+            }
+        }
         return true;
     }
 }
@@ -1,50 +1,113 @@
 package org.wildcodeschool.myblog.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
+//Keys are decoded and the parser is built once, both are immutable and shared by every request.
+//Tokens are signed with the current key and name it in their "kid" header. Retired keys still verify
+//the tokens they signed until those expire, which lets the secret change without logging everyone out.
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret-key}")
-    private String secretKey;
+    private final long jwtExpiration;
+    private final String currentKeyId;
+    private final SecretKey currentKey;
+    private final Map<String, SecretKey> verificationKeys;
+    private final JwtParser parser;
 
-    @Value("${security.jwt.expiration-time}")
-    private long jwtExpiration;
+    public JwtService(@Value("${security.jwt.secret-key}") String secretKey,
+                      @Value("${security.jwt.key-id}") String keyId,
+                      @Value("${security.jwt.retired-keys:}") String retiredKeys,
+                      @Value("${security.jwt.expiration-time}") long jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.currentKeyId = keyId;
+        this.currentKey = decodeKey(secretKey);
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (String entry : retiredKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("security.jwt.retired-keys expects kid:secret entries");
+            }
+            keys.put(parts[0], decodeKey(parts[1]));
+        }
+        keys.put(currentKeyId, currentKey);
+        this.verificationKeys = Map.copyOf(keys);
+
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyIdResolver())
+                .build();
+    }
 
     public String generateToken(UserDetails userDetails) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, currentKeyId)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .claim("roles", userDetails.getAuthorities())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .signWith(currentKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    //access token lifetime in millisecond
+    public long getExpirationTime() {
+        return jwtExpiration;
+    }
+
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(secretKey)
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean validateJwtToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey.getBytes())
-                    .build()
-                    .parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    //the secret is base64, as it always was for signing
+    private static SecretKey decodeKey(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret.trim()));
+    }
+
+    //tokens issued before the "kid" header existed were signed with the current key
+    private class KeyIdResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String keyId = header.getKeyId();
+            if (keyId == null) {
+                return currentKey;
+            }
+            SecretKey key = verificationKeys.get(keyId);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown key id " + keyId);
+            }
+            return key;
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package org.wildcodeschool.myblog.Service;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.exception.InvalidTokenException;
+import org.wildcodeschool.myblog.model.RefreshToken;
+import org.wildcodeschool.myblog.model.User;
+import org.wildcodeschool.myblog.repository.RefreshTokenRepository;
+import org.wildcodeschool.myblog.repository.UserRepository;
+import org.wildcodeschool.myblog.security.TokenHashes;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+//Refresh tokens are random, stored as their hash and single use: each refresh deletes the token and issues a new one
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${security.jwt.refresh-expiration-time}")
+    private long refreshExpiration;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(TokenHashes.sha256(token));
+        refreshToken.setUser(userRepository.getReferenceById(user.getId()));
+        refreshToken.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    //the user of a valid token, the token itself can no longer be used
+    @Transactional
+    public User consume(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidTokenException("Le refresh token est manquant :(");
+        }
+        String tokenHash = TokenHashes.sha256(token);
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new InvalidTokenException("Le refresh token est invalide :("));
+        // the delete count guards against two refreshes of the same token at the same time
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            throw new InvalidTokenException("Le refresh token est invalide :(");
+        }
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidTokenException("Le refresh token a expiré :(");
+        }
+        // the user and its roles are read here, the access token is built after the transaction
+        return (User) Hibernate.unproxy(refreshToken.getUser());
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        if (token != null && !token.isBlank()) {
+            refreshTokenRepository.deleteByTokenHash(TokenHashes.sha256(token));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.rebuild-interval}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+}
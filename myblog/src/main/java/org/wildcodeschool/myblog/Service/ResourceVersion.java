@@ -0,0 +1,34 @@
+package org.wildcodeschool.myblog.Service;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+//Strong ETag and Last-Modified of a resource, computed without loading it
+public final class ResourceVersion {
+
+    private final String eTag;
+    private final long lastModified;
+
+    private ResourceVersion(String eTag, long lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    public static ResourceVersion of(String fingerprint, LocalDateTime lastModified) {
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(fingerprint.getBytes(StandardCharsets.UTF_8)) + "\"";
+        long lastModifiedMillis = lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new ResourceVersion(eTag, lastModifiedMillis);
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    //epoch millis, -1 when unknown
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -1,9 +1,11 @@
 package org.wildcodeschool.myblog.Service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.wildcodeschool.myblog.config.CacheConfig;
 import org.wildcodeschool.myblog.exception.AlreadyExistsException;
 import org.wildcodeschool.myblog.model.User;
 import org.wildcodeschool.myblog.repository.UserRepository;
@@ -22,6 +24,7 @@ public class UserService {
         this.passwordEncoder = passwordEncoder;
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#email")
     public User registerUser(String email, String password, Set<String> roles) {
         if(userRepository.existsByEmail(email)) {
             throw new AlreadyExistsException("Email already exists");
@@ -0,0 +1,60 @@
+package org.wildcodeschool.myblog.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ARTICLES = "articles";
+    public static final String USERS = "users";
+    public static final String AUTHOR_PROFILES = "authorProfiles";
+
+    @Value("${cache.articles.maximum-size}")
+    private long articlesMaximumSize;
+
+    @Value("${cache.articles.time-to-live}")
+    private Duration articlesTimeToLive;
+
+    @Value("${cache.users.maximum-size}")
+    private long usersMaximumSize;
+
+    @Value("${cache.users.time-to-live}")
+    private Duration usersTimeToLive;
+
+    @Value("${cache.author-profiles.maximum-size}")
+    private long authorProfilesMaximumSize;
+
+    @Value("${cache.author-profiles.time-to-live}")
+    private Duration authorProfilesTimeToLive;
+
+    //Every cache records its statistics so that actuator exposes hits, misses and evictions
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> cacheManagerCustomizer() {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(ARTICLES, Caffeine.newBuilder()
+                    .maximumSize(articlesMaximumSize)
+                    .expireAfterWrite(articlesTimeToLive)
+                    .recordStats()
+                    .build());
+            cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                    .maximumSize(usersMaximumSize)
+                    .expireAfterWrite(usersTimeToLive)
+                    .recordStats()
+                    .build());
+            cacheManager.registerCustomCache(AUTHOR_PROFILES, Caffeine.newBuilder()
+                    .maximumSize(authorProfilesMaximumSize)
+                    .expireAfterWrite(authorProfilesTimeToLive)
+                    .recordStats()
+                    .build());
+        };
+    }
+}
@@ -2,14 +2,24 @@ package org.wildcodeschool.myblog.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.wildcodeschool.myblog.Service.ArticleExportService;
+import org.wildcodeschool.myblog.Service.ArticleImportService;
 import org.wildcodeschool.myblog.Service.ArticleService;
+import org.wildcodeschool.myblog.Service.ResourceVersion;
 import org.wildcodeschool.myblog.dto.ArticleCreateDTO;
 import org.wildcodeschool.myblog.dto.ArticleDTO;
+import org.wildcodeschool.myblog.dto.ArticleImportResultDTO;
+import org.wildcodeschool.myblog.dto.ArticleSearchResultDTO;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
+import org.wildcodeschool.myblog.dto.CursorPageDTO;
 import org.wildcodeschool.myblog.model.*;
 
 import java.util.List;
@@ -20,23 +30,73 @@ import java.util.List;
 @Validated
 public class ArticleController {
     private final ArticleService articleService;
+    private final ArticleExportService articleExportService;
+    private final ArticleImportService articleImportService;
 
-    public ArticleController(ArticleService articleService) {
+    public ArticleController(ArticleService articleService, ArticleExportService articleExportService, ArticleImportService articleImportService) {
         this.articleService = articleService;
+        this.articleExportService = articleExportService;
+        this.articleImportService = articleImportService;
     }
 
     //CRUD
     @GetMapping
-    public ResponseEntity<List<ArticleDTO>> getAllArticles() {
-        List<ArticleDTO> articles = articleService.getAllArticles();
+    public ResponseEntity<CursorPageDTO<ArticleDTO>> getAllArticles(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size,
+                                                                   WebRequest request) {
+        // 304 before the page is loaded and mapped, ETag and Last-Modified headers are set in both cases
+        ResourceVersion version = articleService.getArticlesPageVersion(cursor, size);
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
+        CursorPageDTO<ArticleDTO> articles = articleService.getArticlesPage(cursor, size);
+        if (articles.getItems().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(articles);
+    }
+
+    @GetMapping("/latest")
+    public ResponseEntity<List<ArticleSummaryDTO>> getLatestArticles() {
+        List<ArticleSummaryDTO> articles = articleService.getLatestArticles();
         if (articles.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.ok(articles);
     }
 
+    @GetMapping("/summaries")
+    public ResponseEntity<CursorPageDTO<ArticleSummaryDTO>> getArticleSummaries(@RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size) {
+        CursorPageDTO<ArticleSummaryDTO> summaries = articleService.getArticleSummariesPage(cursor, size);
+        if (summaries.getItems().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(summaries);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ArticleSearchResultDTO>> searchArticles(@RequestParam("q") String query,
+                                                                       @RequestParam(required = false) Integer limit) {
+        List<ArticleSearchResultDTO> results = articleService.searchArticles(query, limit);
+        if (results.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        StreamingResponseBody body = articleExportService::exportTo;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ArticleDTO> getArticleById(@PathVariable Long id) {
+    public ResponseEntity<ArticleDTO> getArticleById(@PathVariable Long id, WebRequest request) {
+        ResourceVersion version = articleService.getArticleVersion(id);
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
         ArticleDTO article = articleService.getArticleById(id);
         if (article == null) {
             return ResponseEntity.notFound().build();
@@ -51,11 +111,18 @@ public class ArticleController {
      return ResponseEntity.status(HttpStatus.CREATED).body(savedArticle);
     }
 
+    //items are validated one by one, the report tells which ones were imported
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/bulk")
+    public ResponseEntity<ArticleImportResultDTO> importArticles(@RequestBody List<ArticleCreateDTO> articleCreateDTOs) {
+        ArticleImportResultDTO result = articleImportService.importArticles(articleCreateDTOs);
+        return ResponseEntity.ok(result);
+    }
+
     @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR')")
     @PutMapping("/{id}")
     public ResponseEntity<ArticleDTO> updateArticle(@PathVariable Long id, @RequestBody Article articleDetails, Authentication authentication) {
-        String userEmail = authentication.getName();
-        ArticleDTO article = articleService.updateArticle(id, articleDetails, userEmail);
+        ArticleDTO article = articleService.updateArticle(id, articleDetails, authentication);
         if (article == null) {
             return ResponseEntity.notFound().build();
         }
@@ -64,8 +131,7 @@ public class ArticleController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteArticle(@PathVariable Long id, Authentication authentication) {
-        String userEmail = authentication.getName();
-       articleService.deleteArticle(id,  userEmail);
+       articleService.deleteArticle(id, authentication);
            return ResponseEntity.noContent().build();
     }
 }
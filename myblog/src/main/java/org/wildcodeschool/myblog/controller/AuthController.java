@@ -2,12 +2,15 @@ package org.wildcodeschool.myblog.controller;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.wildcodeschool.myblog.Service.AuthenticationService;
 import org.wildcodeschool.myblog.Service.UserService;
+import org.wildcodeschool.myblog.dto.AuthTokensDTO;
+import org.wildcodeschool.myblog.dto.RefreshTokenDTO;
 import org.wildcodeschool.myblog.dto.UserLoginDTO;
 import org.wildcodeschool.myblog.dto.UserRegistrationDTO;
 import org.wildcodeschool.myblog.model.User;
@@ -36,11 +39,24 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> authenticate(@RequestBody UserLoginDTO userLoginDTO) {
-        String token = authenticationService.authenticate(
+    public ResponseEntity<AuthTokensDTO> authenticate(@RequestBody UserLoginDTO userLoginDTO) {
+        AuthTokensDTO tokens = authenticationService.authenticate(
                 userLoginDTO.getEmail(),
                 userLoginDTO.getPassword()
         );
-        return ResponseEntity.ok("Token: " + token);
+        return ResponseEntity.ok(tokens);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthTokensDTO> refresh(@RequestBody RefreshTokenDTO refreshTokenDTO) {
+        AuthTokensDTO tokens = authenticationService.refresh(refreshTokenDTO.getRefreshToken());
+        return ResponseEntity.ok(tokens);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenDTO refreshTokenDTO, Authentication authentication) {
+        String refreshToken = refreshTokenDTO != null ? refreshTokenDTO.getRefreshToken() : null;
+        authenticationService.logout(refreshToken, authentication);
+        return ResponseEntity.noContent().build();
     }
 }
@@ -5,6 +5,7 @@ import org.springframework.web.bind.annotation.*;
 import org.wildcodeschool.myblog.Service.AuthorService;
 import org.wildcodeschool.myblog.dto.ArticleAuthorDTO;
 import org.wildcodeschool.myblog.dto.AuthorDTO;
+import org.wildcodeschool.myblog.dto.AuthorProfileDTO;
 import org.wildcodeschool.myblog.model.ArticleAuthor;
 import org.wildcodeschool.myblog.model.Author;
 import org.wildcodeschool.myblog.repository.AuthorRepository;
@@ -34,6 +35,16 @@ public class AuthorController {
         return ResponseEntity.ok(authors);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<List<AuthorDTO>> suggestAuthors(@RequestParam String prefix,
+                                                          @RequestParam(required = false) Integer limit) {
+        List<AuthorDTO> authors = authorService.suggestAuthors(prefix, limit);
+        if(authors.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(authors);
+    }
+
     @GetMapping("{id}")
     public ResponseEntity<AuthorDTO> getAuthorById(@PathVariable Long id) {
         AuthorDTO author = authorService.getAuthorById(id);
@@ -43,6 +54,12 @@ public class AuthorController {
         return ResponseEntity.ok(author);
     }
 
+    @GetMapping("/{id}/profile")
+    public ResponseEntity<AuthorProfileDTO> getAuthorProfile(@PathVariable Long id) {
+        AuthorProfileDTO profile = authorService.getAuthorProfile(id);
+        return ResponseEntity.ok(profile);
+    }
+
     @PostMapping
     public ResponseEntity<AuthorDTO> addAuthor(@RequestBody Author author) {
         AuthorDTO savedAuthor = authorService.createAuthor(author);
@@ -3,8 +3,11 @@ package org.wildcodeschool.myblog.controller;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.wildcodeschool.myblog.Service.ArticleService;
 import org.wildcodeschool.myblog.Service.CategoryService;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
 import org.wildcodeschool.myblog.dto.CategoryDTO;
+import org.wildcodeschool.myblog.dto.CursorPageDTO;
 import org.wildcodeschool.myblog.model.Category;
 
 import java.util.List;
@@ -15,9 +18,11 @@ import java.util.stream.Collectors;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ArticleService articleService;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ArticleService articleService) {
         this.categoryService = categoryService;
+        this.articleService = articleService;
     }
 
     @GetMapping
@@ -38,6 +43,17 @@ public class CategoryController {
         return ResponseEntity.ok(category);
     }
 
+    @GetMapping("/{id}/articles")
+    public ResponseEntity<CursorPageDTO<ArticleSummaryDTO>> getCategoryArticles(@PathVariable Long id,
+                                                                               @RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size) {
+        CursorPageDTO<ArticleSummaryDTO> summaries = articleService.getCategoryArticleSummariesPage(id, cursor, size);
+        if (summaries.getItems().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(summaries);
+    }
+
     @PostMapping
     public ResponseEntity<CategoryDTO> addCategory(@RequestBody Category category) {
         CategoryDTO savedCategory = categoryService.createCategory(category);
@@ -1,12 +1,24 @@
 package org.wildcodeschool.myblog.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import org.wildcodeschool.myblog.Service.ImageService;
+import org.wildcodeschool.myblog.dto.CursorPageDTO;
 import org.wildcodeschool.myblog.dto.ImageDTO;
 import org.wildcodeschool.myblog.model.Image;
+import org.wildcodeschool.myblog.model.ImageVariant;
+import org.wildcodeschool.myblog.storage.ByteRange;
+import org.wildcodeschool.myblog.storage.ImageStore;
 
-
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,16 +27,19 @@ import java.util.stream.Collectors;
 public class ImageController {
 
     private final ImageService imageService;
+    private final ImageStore imageStore;
 
-    public ImageController(ImageService imageService) {
+    public ImageController(ImageService imageService, ImageStore imageStore) {
         this.imageService = imageService;
+        this.imageStore = imageStore;
     }
 
     //CRUD
     @GetMapping
-    public ResponseEntity<List<ImageDTO>> getAllImages() {
-        List<ImageDTO> images = imageService.getAllImages();
-        if(images.isEmpty()) {
+    public ResponseEntity<CursorPageDTO<ImageDTO>> getAllImages(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        CursorPageDTO<ImageDTO> images = imageService.getImagesPage(cursor, size);
+        if(images.getItems().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.ok(images);
@@ -45,6 +60,59 @@ public class ImageController {
         return ResponseEntity.status(201).body(savedImage);
         }
 
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImageDTO> uploadImage(@RequestParam("file") MultipartFile file) {
+        ImageDTO savedImage = imageService.uploadImage(file);
+        return ResponseEntity.status(201).body(savedImage);
+    }
+
+    //the bytes of an uploaded image never change, so they can be cached forever.
+    //With a width, one of the resized variants listed in ImageDTO.variants is sent instead.
+    @GetMapping("/{id}/raw")
+    public void getRawImage(@PathVariable Long id, @RequestParam(required = false) Integer width,
+                            WebRequest webRequest, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentHash;
+        String contentType;
+        long size;
+        if (width == null) {
+            Image image = imageService.getStoredImage(id);
+            contentHash = image.getContentHash();
+            contentType = image.getContentType();
+            size = image.getContentLength();
+        } else {
+            ImageVariant variant = imageService.getStoredVariant(id, width);
+            contentHash = variant.getContentHash();
+            contentType = variant.getContentType();
+            size = variant.getContentLength();
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String eTag = "\"" + contentHash + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return;
+        }
+
+        // a Range is only honoured for the version named by If-Range, when there is one
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        String rangeHeader = ifRange == null || ifRange.equals(eTag) ? request.getHeader(HttpHeaders.RANGE) : null;
+        ByteRange range = ByteRange.parse(rangeHeader, size);
+        if (!range.isSatisfiable()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(size));
+            return;
+        }
+        if (range.isPartial()) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(size));
+        }
+        response.setContentType(contentType);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentLengthLong(range.getLength());
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            imageStore.transfer(contentHash, range.getStart(), range.getLength(), request, response);
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ImageDTO> updateImage(@PathVariable Long id, @RequestBody Image imageDetails) {
         ImageDTO image = imageService.updateImage(id, imageDetails);
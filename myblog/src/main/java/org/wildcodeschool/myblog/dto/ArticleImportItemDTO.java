@@ -0,0 +1,43 @@
+package org.wildcodeschool.myblog.dto;
+
+public class ArticleImportItemDTO {
+    private int index;
+    private Long articleId;
+    private String error;
+
+    public ArticleImportItemDTO() {
+    }
+
+    public ArticleImportItemDTO(int index, Long articleId, String error) {
+        this.index = index;
+        this.articleId = articleId;
+        this.error = error;
+    }
+
+    //Getters & Setters
+
+    //position of the article in the submitted batch
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getArticleId() {
+        return articleId;
+    }
+
+    public void setArticleId(Long articleId) {
+        this.articleId = articleId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
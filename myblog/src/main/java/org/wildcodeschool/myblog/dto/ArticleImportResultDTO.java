@@ -0,0 +1,35 @@
+package org.wildcodeschool.myblog.dto;
+
+import java.util.List;
+
+public class ArticleImportResultDTO {
+    private int imported;
+    private int failed;
+    private List<ArticleImportItemDTO> items;
+
+    //Getters & Setters
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ArticleImportItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ArticleImportItemDTO> items) {
+        this.items = items;
+    }
+}
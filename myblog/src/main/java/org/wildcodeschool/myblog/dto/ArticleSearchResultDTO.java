@@ -0,0 +1,42 @@
+package org.wildcodeschool.myblog.dto;
+
+public class ArticleSearchResultDTO {
+    private Long id;
+    private String title;
+    private double score;
+
+    public ArticleSearchResultDTO() {
+    }
+
+    public ArticleSearchResultDTO(Long id, String title, double score) {
+        this.id = id;
+        this.title = title;
+        this.score = score;
+    }
+
+    //Getters & Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,79 @@
+package org.wildcodeschool.myblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+public class ArticleSummaryDTO {
+    private Long id;
+    private String title;
+    private String categoryName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updateAt;
+    private String excerpt;
+
+    public ArticleSummaryDTO() {
+    }
+
+    //used by the JPQL constructor projections of ArticleRepository
+    public ArticleSummaryDTO(Long id, String title, String categoryName, LocalDateTime createdAt, LocalDateTime updateAt, String excerpt) {
+        this.id = id;
+        this.title = title;
+        this.categoryName = categoryName;
+        this.createdAt = createdAt;
+        this.updateAt = updateAt;
+        this.excerpt = excerpt;
+    }
+
+    //Getters & Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    //only needed to build the pagination cursor
+    @JsonIgnore
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdateAt() {
+        return updateAt;
+    }
+
+    public void setUpdateAt(LocalDateTime updateAt) {
+        this.updateAt = updateAt;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+}
@@ -0,0 +1,74 @@
+package org.wildcodeschool.myblog.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class AuthorProfileDTO {
+    private Long id;
+    private String firstname;
+    private String lastname;
+    private long articleCount;
+    //number of articles by contribution, in alphabetical order
+    private Map<String, Long> contributions;
+    private ArticleSummaryDTO latestArticle;
+    private LocalDateTime firstPublishedAt;
+    private LocalDateTime lastPublishedAt;
+
+    //Getters & Setters
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFirstname() {
+        return firstname;
+    }
+    public void setFirstname(String firstname) {
+        this.firstname = firstname;
+    }
+
+    public String getLastname() {
+        return lastname;
+    }
+    public void setLastname(String lastname) {
+        this.lastname = lastname;
+    }
+
+    public long getArticleCount() {
+        return articleCount;
+    }
+    public void setArticleCount(long articleCount) {
+        this.articleCount = articleCount;
+    }
+
+    public Map<String, Long> getContributions() {
+        return contributions;
+    }
+    public void setContributions(Map<String, Long> contributions) {
+        this.contributions = contributions;
+    }
+
+    public ArticleSummaryDTO getLatestArticle() {
+        return latestArticle;
+    }
+    public void setLatestArticle(ArticleSummaryDTO latestArticle) {
+        this.latestArticle = latestArticle;
+    }
+
+    public LocalDateTime getFirstPublishedAt() {
+        return firstPublishedAt;
+    }
+    public void setFirstPublishedAt(LocalDateTime firstPublishedAt) {
+        this.firstPublishedAt = firstPublishedAt;
+    }
+
+    public LocalDateTime getLastPublishedAt() {
+        return lastPublishedAt;
+    }
+    public void setLastPublishedAt(LocalDateTime lastPublishedAt) {
+        this.lastPublishedAt = lastPublishedAt;
+    }
+}
@@ -1,11 +1,19 @@
 package org.wildcodeschool.myblog.dto;
 
-import java.util.List;
-
 public class CategoryDTO {
     private Long id;
     private String name;
-    private List<ArticleDTO> articles;
+    private long articleCount;
+
+    public CategoryDTO() {
+    }
+
+    //used by the JPQL constructor projections of CategoryRepository
+    public CategoryDTO(Long id, String name, long articleCount) {
+        this.id = id;
+        this.name = name;
+        this.articleCount = articleCount;
+    }
 
     //Getters & Setters
 
@@ -23,10 +31,10 @@ public class CategoryDTO {
         this.name = name;
     }
 
-    public List<ArticleDTO> getArticles() {
-        return articles;
+    public long getArticleCount() {
+        return articleCount;
     }
-    public void setArticles(List<ArticleDTO> articles) {
-        this.articles = articles;
+    public void setArticleCount(long articleCount) {
+        this.articleCount = articleCount;
     }
 }
@@ -9,6 +9,8 @@ public class ImageDTO {
     @URL(message = "L'URL de l'image doit être valide")
     private String url;
     private List<Long> articleIds;
+    //resized copies of an uploaded image, smallest first, empty until they are generated
+    private List<ImageVariantDTO> variants;
 
     //Getters & Setters
     public Long getId() {
@@ -31,4 +33,11 @@ public class ImageDTO {
     public void setArticleIds(List<Long> articleIds) {
         this.articleIds = articleIds;
     }
+
+    public List<ImageVariantDTO> getVariants() {
+        return variants;
+    }
+    public void setVariants(List<ImageVariantDTO> variants) {
+        this.variants = variants;
+    }
 }
@@ -0,0 +1,30 @@
+package org.wildcodeschool.myblog.dto;
+
+public class ImageVariantDTO {
+    private int width;
+    private int height;
+    private String url;
+
+    //Getters & Setters
+
+    public int getWidth() {
+        return width;
+    }
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+    public void setUrl(String url) {
+        this.url = url;
+    }
+}
@@ -0,0 +1,15 @@
+package org.wildcodeschool.myblog.dto;
+
+public class RefreshTokenDTO {
+    private String refreshToken;
+
+    //Getters & Setters
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,7 @@
+package org.wildcodeschool.myblog.exception;
+
+public class InvalidImageException extends RuntimeException {
+    public InvalidImageException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.wildcodeschool.myblog.exception;
+
+public class PasswordEncoderBusyException extends RuntimeException {
+    public PasswordEncoderBusyException(String message) {
+        super(message);
+    }
+}
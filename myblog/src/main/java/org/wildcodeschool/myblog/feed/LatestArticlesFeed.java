@@ -0,0 +1,104 @@
+package org.wildcodeschool.myblog.feed;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+//Most recent articles of the home page, served from memory.
+//Readers get an immutable snapshot, writers swap a new one in with compare-and-set, so nobody ever locks.
+@Component
+public class LatestArticlesFeed {
+
+    // size of ArticleRepository.findTop5ByOrderByCreatedAtDesc
+    public static final int CAPACITY = 5;
+
+    private static final Comparator<ArticleSummaryDTO> NEWEST_FIRST = Comparator
+            .comparing(ArticleSummaryDTO::getCreatedAt)
+            .thenComparing(ArticleSummaryDTO::getId)
+            .reversed();
+
+    private final ArticleRepository articleRepository;
+    private final ArticleMapper articleMapper;
+
+    private final AtomicReference<List<ArticleSummaryDTO>> latest = new AtomicReference<>(List.of());
+
+    public LatestArticlesFeed(ArticleRepository articleRepository, ArticleMapper articleMapper) {
+        this.articleRepository = articleRepository;
+        this.articleMapper = articleMapper;
+    }
+
+    //the database is read first, then merged under compare-and-set: an article added or edited meanwhile is not lost
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<ArticleSummaryDTO> stored = articleRepository.findTop5ByOrderByCreatedAtDesc().stream()
+                .map(articleMapper::convertToSummaryDTO)
+                .toList();
+        update(current -> merge(stored, current));
+    }
+
+    public List<ArticleSummaryDTO> getLatest() {
+        return latest.get();
+    }
+
+    //a new article goes in front and pushes the oldest one out
+    public void add(ArticleSummaryDTO summary) {
+        update(current -> {
+            List<ArticleSummaryDTO> next = new ArrayList<>(current.size() + 1);
+            next.add(summary);
+            current.stream().filter(article -> !article.getId().equals(summary.getId())).forEach(next::add);
+            next.sort(NEWEST_FIRST);
+            return List.copyOf(next.subList(0, Math.min(next.size(), CAPACITY)));
+        });
+    }
+
+    //an edited article keeps its place, its title or excerpt may have changed
+    public void replace(ArticleSummaryDTO summary) {
+        update(current -> current.stream()
+                .map(article -> article.getId().equals(summary.getId()) ? summary : article)
+                .toList());
+    }
+
+    public void remove(Long id) {
+        if (latest.get().stream().anyMatch(article -> article.getId().equals(id))) {
+            update(current -> current.stream().filter(article -> !article.getId().equals(id)).toList());
+            // the article that takes the free slot is only known by the database
+            reload();
+        }
+    }
+
+    //rows read from the database, plus the articles of the feed they do not know yet; for the same article the latest edit wins
+    private static List<ArticleSummaryDTO> merge(List<ArticleSummaryDTO> stored, List<ArticleSummaryDTO> current) {
+        Map<Long, ArticleSummaryDTO> byId = new HashMap<>();
+        stored.forEach(article -> byId.put(article.getId(), article));
+        for (ArticleSummaryDTO article : current) {
+            byId.merge(article.getId(), article, (storedArticle, feedArticle) -> isNewer(feedArticle, storedArticle) ? feedArticle : storedArticle);
+        }
+        List<ArticleSummaryDTO> next = new ArrayList<>(byId.values());
+        next.sort(NEWEST_FIRST);
+        return List.copyOf(next.subList(0, Math.min(next.size(), CAPACITY)));
+    }
+
+    private static boolean isNewer(ArticleSummaryDTO article, ArticleSummaryDTO other) {
+        return article.getUpdateAt() != null && other.getUpdateAt() != null && article.getUpdateAt().isAfter(other.getUpdateAt());
+    }
+
+    private void update(UnaryOperator<List<ArticleSummaryDTO>> change) {
+        List<ArticleSummaryDTO> current;
+        List<ArticleSummaryDTO> next;
+        do {
+            current = latest.get();
+            next = change.apply(current);
+        } while (!latest.compareAndSet(current, next));
+    }
+}
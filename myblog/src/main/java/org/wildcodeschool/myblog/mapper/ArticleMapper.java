@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 import org.wildcodeschool.myblog.dto.*;
 import org.wildcodeschool.myblog.model.*;
 
+import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 
 @Component
@@ -39,6 +40,17 @@ public class ArticleMapper {
         return articleDto;
     }
 
+    //Summary DTO for Article
+    public ArticleSummaryDTO convertToSummaryDTO(Article article) {
+        String excerpt = article.getExcerpt();
+        if (excerpt == null && article.getContent() != null) {
+            excerpt = article.getContent().substring(0, Math.min(article.getContent().length(), Article.EXCERPT_LENGTH));
+        }
+        return new ArticleSummaryDTO(article.getId(), article.getTitle(),
+                article.getCategory() != null ? article.getCategory().getName() : null,
+                article.getCreatedAt(), article.getUpdatedAt(), excerpt);
+    }
+
     //convert to Entity when we create an article
     public Article convertToEntity(ArticleCreateDTO articleCreateDTO) {
         Article article = new Article();
@@ -59,7 +71,7 @@ public class ArticleMapper {
                         Image image = new Image();
                         image.setUrl(imageDTO.getUrl());
                         return image;
-                    }).collect(Collectors.toList()));
+                    }).collect(Collectors.toCollection(LinkedHashSet::new)));
         }
         // Authors
 
@@ -1,8 +1,15 @@
 package org.wildcodeschool.myblog.mapper;
 
 import org.springframework.stereotype.Component;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
 import org.wildcodeschool.myblog.dto.AuthorDTO;
+import org.wildcodeschool.myblog.dto.AuthorProfileDTO;
 import org.wildcodeschool.myblog.model.Author;
+import org.wildcodeschool.myblog.repository.AuthorContribution;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class AuthorMapper {
@@ -15,4 +22,26 @@ public class AuthorMapper {
         authorDTO.setLastname(author.getLastname());
         return authorDTO;
     }
+
+    //DTO for the profile of an Author, from the rows of ArticleAuthorRepository.findContributionsByAuthorId
+    public AuthorProfileDTO convertToProfileDTO(Author author, List<AuthorContribution> contributions, ArticleSummaryDTO latestArticle) {
+        AuthorProfileDTO profileDTO = new AuthorProfileDTO();
+        profileDTO.setId(author.getId());
+        profileDTO.setFirstname(author.getFirstname());
+        profileDTO.setLastname(author.getLastname());
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (AuthorContribution contribution : contributions) {
+            counts.put(contribution.getContribution(), contribution.getArticleCount());
+            profileDTO.setArticleCount(contribution.getTotalArticleCount());
+            if (profileDTO.getFirstPublishedAt() == null || contribution.getFirstPublishedAt().isBefore(profileDTO.getFirstPublishedAt())) {
+                profileDTO.setFirstPublishedAt(contribution.getFirstPublishedAt());
+            }
+            if (profileDTO.getLastPublishedAt() == null || contribution.getLastPublishedAt().isAfter(profileDTO.getLastPublishedAt())) {
+                profileDTO.setLastPublishedAt(contribution.getLastPublishedAt());
+            }
+        }
+        profileDTO.setContributions(counts);
+        profileDTO.setLatestArticle(latestArticle);
+        return profileDTO;
+    }
 }
@@ -1,31 +1,14 @@
 package org.wildcodeschool.myblog.mapper;
 
 import org.springframework.stereotype.Component;
-import org.wildcodeschool.myblog.dto.ArticleDTO;
 import org.wildcodeschool.myblog.dto.CategoryDTO;
 import org.wildcodeschool.myblog.model.Category;
 
-import java.util.stream.Collectors;
-
 @Component
 public class CategoryMapper {
 
-    //DTO for Category
-    public CategoryDTO convertToDTO(Category category) {
-        CategoryDTO categoryDTO = new CategoryDTO();
-        categoryDTO.setId(category.getId());
-        categoryDTO.setName(category.getName());
-        if(category.getArticles() != null) {
-            categoryDTO.setArticles(category.getArticles().stream().map(article -> {
-                ArticleDTO articleDTO = new ArticleDTO();
-                articleDTO.setId(article.getId());
-                articleDTO.setTitle(article.getTitle());
-                articleDTO.setContent(article.getContent());
-                articleDTO.setUpdateAt(article.getUpdatedAt());
-                articleDTO.setCategoryName(article.getCategory().getName());
-                return articleDTO;
-            }).collect(Collectors.toList()));
-        }
-        return categoryDTO;
+    //DTO for Category, its articles are counted by the caller and listed by GET /categories/{id}/articles
+    public CategoryDTO convertToDTO(Category category, long articleCount) {
+        return new CategoryDTO(category.getId(), category.getName(), articleCount);
     }
 }
@@ -2,9 +2,12 @@ package org.wildcodeschool.myblog.mapper;
 
 import org.springframework.stereotype.Component;
 import org.wildcodeschool.myblog.dto.ImageDTO;
+import org.wildcodeschool.myblog.dto.ImageVariantDTO;
 import org.wildcodeschool.myblog.model.Article;
 import org.wildcodeschool.myblog.model.Image;
+import org.wildcodeschool.myblog.model.ImageVariant;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -12,12 +15,31 @@ public class ImageMapper {
 
     //DTO for Image
     public ImageDTO convertToDTO(Image image) {
+        List<Long> articleIds = null;
+        if(image.getArticles() != null) {
+            articleIds = image.getArticles().stream().map(Article::getId).collect(Collectors.toList());
+        }
+        return convertToDTO(image, articleIds);
+    }
+
+    //DTO for Image when the article ids were read from the join table, the articles are not loaded
+    public ImageDTO convertToDTO(Image image, List<Long> articleIds) {
         ImageDTO imageDTO = new ImageDTO();
         imageDTO.setId(image.getId());
         imageDTO.setUrl(image.getUrl());
-        if(image.getArticles() != null) {
-            imageDTO.setArticleIds(image.getArticles().stream().map(Article::getId).collect(Collectors.toList()));
+        imageDTO.setArticleIds(articleIds);
+        if (image.getVariants() != null) {
+            imageDTO.setVariants(image.getVariants().stream().map(variant -> convertToDTO(image, variant)).collect(Collectors.toList()));
         }
         return imageDTO;
     }
+
+    //DTO for ImageVariant, served by GET /images/{id}/raw?width=
+    public ImageVariantDTO convertToDTO(Image image, ImageVariant variant) {
+        ImageVariantDTO variantDTO = new ImageVariantDTO();
+        variantDTO.setWidth(variant.getWidth());
+        variantDTO.setHeight(variant.getHeight());
+        variantDTO.setUrl("/images/" + image.getId() + "/raw?width=" + variant.getWidth());
+        return variantDTO;
+    }
 }
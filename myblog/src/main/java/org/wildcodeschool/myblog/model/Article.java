@@ -1,13 +1,28 @@
 package org.wildcodeschool.myblog.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Entity
+@NamedEntityGraph(name = "Article.list", attributeNodes = @NamedAttributeNode("category"))
+@NamedEntityGraph(name = "Article.detail",
+        attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode(value = "articleAuthors", subgraph = "articleAuthors.author")
+        },
+        subgraphs = @NamedSubgraph(name = "articleAuthors.author", attributeNodes = @NamedAttributeNode("author")))
+@Table(indexes = {
+        @Index(name = "idx_article_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_article_category_created_at_id", columnList = "category_id, created_at, id")
+})
 public class Article {
 
+    public static final int EXCERPT_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -18,6 +33,10 @@ public class Article {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    //first characters of the content, so that listings never have to read the TEXT column
+    @Column(length = EXCERPT_LENGTH)
+    private String excerpt;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -28,15 +47,20 @@ public class Article {
     @JoinColumn(name = "category_id")
     private Category category;
 
+    //collections are initialized for a whole page at once instead of one SELECT per article
+    //a set so that unlinking one image deletes one row instead of rewriting the whole collection
     @ManyToMany
+    @BatchSize(size = 100)
+    @OrderBy("id")
     @JoinTable(
             name = "article_image",
             joinColumns = @JoinColumn(name = "article_id"),
             inverseJoinColumns = @JoinColumn(name = "image_id")
     )
-    private List<Image> images;
+    private Set<Image> images;
 
     @OneToMany(mappedBy = "article")
+    @BatchSize(size = 100)
     private List<ArticleAuthor> articleAuthors;
 
     //Getters & Setters
@@ -61,8 +85,14 @@ public class Article {
         return content;
     }
 
+    //the excerpt follows the content right away, a summary built before the flush is already up to date
     public void setContent(String content) {
         this.content = content;
+        this.excerpt = content == null || content.length() <= EXCERPT_LENGTH ? content : content.substring(0, EXCERPT_LENGTH);
+    }
+
+    public String getExcerpt() {
+        return excerpt;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -89,10 +119,10 @@ public class Article {
         this.category = category;
     }
 
-    public List<Image> getImages() {
+    public Set<Image> getImages() {
         return images;
     }
-    public void setImages(List<Image> images) {
+    public void setImages(Set<Image> images) {
         this.images = images;
     }
 
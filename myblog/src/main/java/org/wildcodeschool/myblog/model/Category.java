@@ -1,11 +1,13 @@
 package org.wildcodeschool.myblog.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
 
 @Entity
+@BatchSize(size = 100)
 public class Category {
 
     @Id
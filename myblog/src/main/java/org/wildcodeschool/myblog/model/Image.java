@@ -2,10 +2,21 @@ package org.wildcodeschool.myblog.model;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CreationTimestamp;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
+@BatchSize(size = 100)
 public class Image {
 
     @Id
@@ -15,9 +26,80 @@ public class Image {
     @Column(nullable = false)
     private String url;
 
+    //SHA-256 of the normalized url, one row per distinct image
+    @Column(name = "url_hash", unique = true, length = 44)
+    private String urlHash;
+
+    //set for uploaded images only: hex SHA-256 of the bytes kept by ImageStore
+    @Column(name = "content_hash", unique = true, length = 64)
+    private String contentHash;
+
+    @Column(name = "content_type", length = 50)
+    private String contentType;
+
+    @Column(name = "content_length")
+    private Long contentLength;
+
+    //null for images stored before the column existed
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
     @ManyToMany(mappedBy = "images")
     private List<Article> articles;
 
+    @OneToMany(mappedBy = "image", cascade = CascadeType.REMOVE)
+    @BatchSize(size = 100)
+    @OrderBy("width")
+    private List<ImageVariant> variants;
+
+    @PrePersist
+    @PreUpdate
+    void computeUrlHash() {
+        urlHash = url == null ? null : hashUrl(url);
+    }
+
+    public static String hashUrl(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalizeUrl(url).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    //scheme and host are case insensitive, default ports and fragments do not change the image
+    static String normalizeUrl(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if ((scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443)) {
+                port = -1;
+            }
+            StringBuilder normalized = new StringBuilder(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                normalized.append(uri.getRawUserInfo()).append('@');
+            }
+            normalized.append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (port != -1) {
+                normalized.append(':').append(port);
+            }
+            String path = uri.getRawPath();
+            normalized.append(path == null || path.isEmpty() ? "/" : path);
+            if (uri.getRawQuery() != null) {
+                normalized.append('?').append(uri.getRawQuery());
+            }
+            return normalized.toString();
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+
     //Getters & Setters
 
     public Long getId() {
@@ -34,10 +116,52 @@ public class Image {
         this.url = url;
     }
 
+    public String getUrlHash() {
+        return urlHash;
+    }
+    public void setUrlHash(String urlHash) {
+        this.urlHash = urlHash;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getContentLength() {
+        return contentLength;
+    }
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public List<Article> getArticles() {
         return articles;
     }
     public void setArticles(List<Article> articles) {
         this.articles = articles;
     }
+
+    public List<ImageVariant> getVariants() {
+        return variants;
+    }
+    public void setVariants(List<ImageVariant> variants) {
+        this.variants = variants;
+    }
 }
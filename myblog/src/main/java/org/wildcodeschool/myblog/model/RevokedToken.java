@@ -0,0 +1,37 @@
+package org.wildcodeschool.myblog.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+//An access token logged out before its expiration, kept until it would have expired anyway
+@Entity
+@Table(indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+
+    //"jti" claim of the access token
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    //Getters & Setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,7 +1,27 @@
 package org.wildcodeschool.myblog.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
 import org.wildcodeschool.myblog.model.ArticleAuthor;
 
+import java.util.List;
+
 public interface ArticleAuthorRepository extends JpaRepository<ArticleAuthor, Long> {
+
+    //One GROUP BY over the rows of the author, an author listed twice on an article counts it once in the total
+    @Query("SELECT aa.contribution AS contribution, COUNT(DISTINCT a.id) AS articleCount, " +
+            "MIN(a.createdAt) AS firstPublishedAt, MAX(a.createdAt) AS lastPublishedAt, " +
+            "(SELECT COUNT(DISTINCT x.article.id) FROM ArticleAuthor x WHERE x.author.id = :authorId) AS totalArticleCount " +
+            "FROM ArticleAuthor aa JOIN aa.article a WHERE aa.author.id = :authorId " +
+            "GROUP BY aa.contribution ORDER BY aa.contribution")
+    List<AuthorContribution> findContributionsByAuthorId(@Param("authorId") Long authorId);
+
+    @Query("SELECT new org.wildcodeschool.myblog.dto.ArticleSummaryDTO(a.id, a.title, c.name, a.createdAt, a.updatedAt, " +
+            "a.excerpt) " +
+            "FROM ArticleAuthor aa JOIN aa.article a LEFT JOIN a.category c WHERE aa.author.id = :authorId " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findLatestSummariesByAuthorId(@Param("authorId") Long authorId, Limit limit);
 }
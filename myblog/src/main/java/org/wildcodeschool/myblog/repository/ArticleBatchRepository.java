@@ -0,0 +1,88 @@
+package org.wildcodeschool.myblog.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.wildcodeschool.myblog.model.Article;
+import org.wildcodeschool.myblog.model.ArticleAuthor;
+import org.wildcodeschool.myblog.model.Image;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+//Inserts for the bulk import. Hibernate sends IDENTITY inserts one statement per row, here each table is one
+//JDBC batch, which Connector/J rewrites into multi-row inserts, and the generated ids are read back from it.
+//Runs on the connection of the current transaction; the rows never enter the persistence context.
+@Repository
+public class ArticleBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ArticleBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //inserts the articles, their images and their authors, and gives each article its generated id
+    public void insertAll(List<Article> articles) {
+        if (articles.isEmpty()) {
+            return;
+        }
+        insertArticles(articles);
+
+        List<long[]> articleImages = new ArrayList<>();
+        List<ArticleAuthor> articleAuthors = new ArrayList<>();
+        for (Article article : articles) {
+            for (Image image : article.getImages()) {
+                articleImages.add(new long[]{article.getId(), image.getId()});
+            }
+            articleAuthors.addAll(article.getArticleAuthors());
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO article_image (article_id, image_id) VALUES (?, ?)", articleImages, articleImages.size(),
+                (statement, link) -> {
+                    statement.setLong(1, link[0]);
+                    statement.setLong(2, link[1]);
+                });
+        jdbcTemplate.batchUpdate("INSERT INTO article_author (article_id, author_id, contribution) VALUES (?, ?, ?)", articleAuthors, articleAuthors.size(),
+                (statement, articleAuthor) -> {
+                    statement.setLong(1, articleAuthor.getArticle().getId());
+                    statement.setLong(2, articleAuthor.getAuthor().getId());
+                    statement.setString(3, articleAuthor.getContribution());
+                });
+    }
+
+    private void insertArticles(List<Article> articles) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO article (title, content, excerpt, created_at, updated_at, category_id) VALUES (?, ?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Article article = articles.get(i);
+                        statement.setString(1, article.getTitle());
+                        statement.setString(2, article.getContent());
+                        statement.setString(3, article.getExcerpt());
+                        statement.setObject(4, article.getCreatedAt());
+                        statement.setObject(5, article.getUpdatedAt());
+                        statement.setLong(6, article.getCategory().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return articles.size();
+                    }
+                },
+                keyHolder);
+        // one key per row, in the order of the batch; the name of the key column depends on the driver
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < articles.size(); i++) {
+            articles.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
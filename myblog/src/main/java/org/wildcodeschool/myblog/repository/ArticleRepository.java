@@ -1,13 +1,28 @@
 package org.wildcodeschool.myblog.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
 import org.wildcodeschool.myblog.model.Article;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
 
+    int EXPORT_FETCH_SIZE = 500;
+
     List<Article> findByTitle(String title);
 
     List<Article> findByContent(String content);
@@ -15,4 +30,86 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     List<Article> findByCreatedAtAfter(LocalDateTime createdAt);
 
     List<Article> findTop5ByOrderByCreatedAtDesc();
+
+    @EntityGraph("Article.detail")
+    Optional<Article> findWithDetailsById(Long id);
+
+    //Keyset pagination on (createdAt, id), both served by idx_article_created_at_id
+    @EntityGraph("Article.list")
+    List<Article> findByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @EntityGraph("Article.list")
+    @Query("SELECT a FROM Article a WHERE a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<Article> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT a.updatedAt FROM Article a WHERE a.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    //Versions of the rows of a page, read from the same keyset as the page itself
+    List<ArticleVersion> findVersionsByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @Query("SELECT a.id AS id, a.updatedAt AS updatedAt FROM Article a " +
+            "WHERE a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleVersion> findVersionsAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    //Server-side cursor for exports, MySQL only honours the fetch size with useCursorFetch=true
+    @EntityGraph("Article.list")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    Stream<Article> streamAllByOrderByIdAsc();
+
+    //Walks the table by primary key, used to build in-memory indexes
+    List<ArticleText> findTextsByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Summaries never select the content column, ArticleService fills the excerpt of older rows at startup
+    @Query("SELECT new org.wildcodeschool.myblog.dto.ArticleSummaryDTO(a.id, a.title, c.name, a.createdAt, a.updatedAt, " +
+            "a.excerpt) " +
+            "FROM Article a LEFT JOIN a.category c ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSummaries(Limit limit);
+
+    @Query("SELECT new org.wildcodeschool.myblog.dto.ArticleSummaryDTO(a.id, a.title, c.name, a.createdAt, a.updatedAt, " +
+            "a.excerpt) " +
+            "FROM Article a LEFT JOIN a.category c " +
+            "WHERE a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    //Summaries of one category, served by idx_article_category_created_at_id
+    @Query("SELECT new org.wildcodeschool.myblog.dto.ArticleSummaryDTO(a.id, a.title, c.name, a.createdAt, a.updatedAt, " +
+            "a.excerpt) " +
+            "FROM Article a JOIN a.category c WHERE c.id = :categoryId ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSummariesByCategory(@Param("categoryId") Long categoryId, Limit limit);
+
+    @Query("SELECT new org.wildcodeschool.myblog.dto.ArticleSummaryDTO(a.id, a.title, c.name, a.createdAt, a.updatedAt, " +
+            "a.excerpt) " +
+            "FROM Article a JOIN a.category c WHERE c.id = :categoryId " +
+            "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSummariesByCategoryAfter(@Param("categoryId") Long categoryId, @Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("id") Long id, Limit limit);
+
+    long countByCategoryId(Long categoryId);
+
+    //An ArticleDTO embeds the names of its category and authors and the urls of its images:
+    //when one of them changes, the articles that embed it get a new updatedAt, hence a new ETag
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Article a SET a.updatedAt = :now WHERE a.category.id = :categoryId")
+    int touchByCategoryId(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE article SET updated_at = :now WHERE id IN (SELECT aa.article_id FROM article_author aa WHERE aa.author_id = :authorId)", nativeQuery = true)
+    int touchByAuthorId(@Param("authorId") Long authorId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE article SET updated_at = :now WHERE id IN (SELECT ai.article_id FROM article_image ai WHERE ai.image_id = :imageId)", nativeQuery = true)
+    int touchByImageId(@Param("imageId") Long imageId, @Param("now") LocalDateTime now);
+
+    //rows written before the excerpt existed, walked by primary key
+    @Query("SELECT a.id FROM Article a WHERE a.excerpt IS NULL AND a.content IS NOT NULL AND a.id > :id ORDER BY a.id")
+    List<Long> findIdsWithoutExcerptAfter(@Param("id") Long id, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Article a SET a.excerpt = SUBSTRING(a.content, 1, " + Article.EXCERPT_LENGTH + ") WHERE a.id IN :ids")
+    int fillExcerpts(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,10 @@
+package org.wildcodeschool.myblog.repository;
+
+//Searchable fields of an article
+public interface ArticleText {
+    Long getId();
+
+    String getTitle();
+
+    String getContent();
+}
@@ -0,0 +1,10 @@
+package org.wildcodeschool.myblog.repository;
+
+import java.time.LocalDateTime;
+
+//Just enough of an article to tell whether a client copy is still fresh
+public interface ArticleVersion {
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,17 @@
+package org.wildcodeschool.myblog.repository;
+
+import java.time.LocalDateTime;
+
+//Articles of an author for one kind of contribution, aggregated over article_author
+public interface AuthorContribution {
+    String getContribution();
+
+    long getArticleCount();
+
+    LocalDateTime getFirstPublishedAt();
+
+    LocalDateTime getLastPublishedAt();
+
+    //articles of the author whatever the contribution, the same on every row
+    long getTotalArticleCount();
+}
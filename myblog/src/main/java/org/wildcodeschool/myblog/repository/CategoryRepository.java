@@ -1,9 +1,23 @@
 package org.wildcodeschool.myblog.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.wildcodeschool.myblog.dto.CategoryDTO;
 import org.wildcodeschool.myblog.model.Category;
 
+import java.util.List;
+import java.util.Optional;
+
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    //One GROUP BY for the whole menu, no article row is read
+    @Query("SELECT new org.wildcodeschool.myblog.dto.CategoryDTO(c.id, c.name, COUNT(a.id)) " +
+            "FROM Category c LEFT JOIN c.articles a GROUP BY c.id, c.name ORDER BY c.name, c.id")
+    List<CategoryDTO> findAllWithArticleCount();
+
+    @Query("SELECT new org.wildcodeschool.myblog.dto.CategoryDTO(c.id, c.name, COUNT(a.id)) " +
+            "FROM Category c LEFT JOIN c.articles a WHERE c.id = :id GROUP BY c.id, c.name")
+    Optional<CategoryDTO> findWithArticleCountById(@Param("id") Long id);
 }
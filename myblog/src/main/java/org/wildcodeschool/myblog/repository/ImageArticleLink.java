@@ -0,0 +1,8 @@
+package org.wildcodeschool.myblog.repository;
+
+//One row of the article_image join table
+public interface ImageArticleLink {
+    Long getImageId();
+
+    Long getArticleId();
+}
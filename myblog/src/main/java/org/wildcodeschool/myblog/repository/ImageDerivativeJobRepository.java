@@ -0,0 +1,38 @@
+package org.wildcodeschool.myblog.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import org.wildcodeschool.myblog.model.ImageDerivativeJob;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageDerivativeJobRepository extends JpaRepository<ImageDerivativeJob, Long> {
+
+    @Query("SELECT j.id FROM ImageDerivativeJob j WHERE j.status = :status ORDER BY j.id")
+    List<Long> findIdsByStatus(ImageDerivativeJob.Status status, Limit limit);
+
+    //1 when this caller moved the job from one status to the other, 0 when someone else did
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageDerivativeJob j SET j.status = :to, j.attempts = j.attempts + 1, j.updatedAt = :now WHERE j.id = :id AND j.status = :from")
+    int claim(Long id, ImageDerivativeJob.Status from, ImageDerivativeJob.Status to, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageDerivativeJob j SET j.status = :to WHERE j.status = :from")
+    int updateStatus(ImageDerivativeJob.Status from, ImageDerivativeJob.Status to);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageDerivativeJob j WHERE j.imageId = :imageId")
+    int deleteByImageId(Long imageId);
+
+    @Modifying
+    @Query("DELETE FROM ImageDerivativeJob j WHERE j.imageId IN :imageIds")
+    int deleteByImageIdIn(Collection<Long> imageIds);
+}
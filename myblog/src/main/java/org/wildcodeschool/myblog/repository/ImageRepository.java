@@ -1,7 +1,42 @@
 package org.wildcodeschool.myblog.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.wildcodeschool.myblog.model.Image;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface ImageRepository extends JpaRepository<Image, Long> {
+
+    //keyset pagination by primary key, articles are not loaded
+    List<Image> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //article ids of a page of images, read from the join table alone
+    @Query(value = "SELECT ai.image_id AS imageId, ai.article_id AS articleId FROM article_image ai " +
+            "WHERE ai.image_id IN (:imageIds) ORDER BY ai.image_id, ai.article_id", nativeQuery = true)
+    List<ImageArticleLink> findArticleLinks(Collection<Long> imageIds);
+
+    Optional<Image> findByUrlHash(String urlHash);
+
+    Optional<Image> findByContentHash(String contentHash);
+
+    List<Image> findByUrlHashIn(Collection<String> urlHashes);
+
+    @Query("SELECT i.id FROM Image i WHERE i.id > :id ORDER BY i.id")
+    List<Long> findIdsAfter(Long id, Limit limit);
+
+    //images of the list that no article uses, created before the cutoff or before created_at existed
+    @Query(value = "SELECT i.id AS id, i.url_hash AS urlHash, i.content_hash AS contentHash FROM image i " +
+            "WHERE i.id IN (:ids) AND (i.created_at IS NULL OR i.created_at < :cutoff) " +
+            "AND NOT EXISTS (SELECT 1 FROM article_image ai WHERE ai.image_id = i.id)", nativeQuery = true)
+    List<OrphanImage> findOrphans(Collection<Long> ids, LocalDateTime cutoff);
+
+    boolean existsByContentHash(String contentHash);
+
+    //rows written before url_hash existed, walked by primary key
+    List<Image> findByUrlHashIsNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
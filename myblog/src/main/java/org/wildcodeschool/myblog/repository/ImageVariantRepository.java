@@ -0,0 +1,26 @@
+package org.wildcodeschool.myblog.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.wildcodeschool.myblog.model.ImageVariant;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    Optional<ImageVariant> findByImageIdAndWidth(Long imageId, int width);
+
+    List<ImageVariant> findByImageId(Long imageId);
+
+    boolean existsByContentHash(String contentHash);
+
+    @Query("SELECT v.contentHash FROM ImageVariant v WHERE v.image.id IN :imageIds")
+    List<String> findContentHashesByImageIdIn(Collection<Long> imageIds);
+
+    @Modifying
+    @Query("DELETE FROM ImageVariant v WHERE v.image.id IN :imageIds")
+    int deleteByImageIdIn(Collection<Long> imageIds);
+}
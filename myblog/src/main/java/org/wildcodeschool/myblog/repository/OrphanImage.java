@@ -0,0 +1,10 @@
+package org.wildcodeschool.myblog.repository;
+
+//An image that no article links to, with what must be cleaned up besides its row
+public interface OrphanImage {
+    Long getId();
+
+    String getUrlHash();
+
+    String getContentHash();
+}
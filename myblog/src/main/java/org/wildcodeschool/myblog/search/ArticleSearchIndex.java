@@ -0,0 +1,182 @@
+package org.wildcodeschool.myblog.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.wildcodeschool.myblog.dto.ArticleSearchResultDTO;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
+import org.wildcodeschool.myblog.repository.ArticleText;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+//In-memory inverted index over the title and the content of the articles, ranked with BM25.
+//Built once at startup, then kept up to date by ArticleService on every write.
+@Component
+public class ArticleSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // a title term counts as much as this many occurrences in the content
+    private static final int TITLE_WEIGHT = 3;
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ArticleRepository articleRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (article id -> term frequency)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedArticle> articles = new HashMap<>();
+    private long totalLength;
+
+    public ArticleSearchIndex(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0;
+        int count = 0;
+        List<ArticleText> batch;
+        do {
+            batch = articleRepository.findTextsByIdGreaterThanOrderByIdAsc(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (ArticleText article : batch) {
+                index(article.getId(), article.getTitle(), article.getContent());
+                lastId = article.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        logger.info("Search index loaded with {} articles", count);
+    }
+
+    public void index(Long id, String title, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+            articles.put(id, new IndexedArticle(title, length, frequencies.keySet()));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ArticleSearchResultDTO> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = articles.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Integer> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - matches.size() + 0.5) / (matches.size() + 0.5));
+                matches.forEach((id, frequency) -> {
+                    double norm = K1 * (1 - B + B * articles.get(id).length / averageLength);
+                    scores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            // keeps the k best scores, worst on top
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                best.offer(score);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<ArticleSearchResultDTO> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                Map.Entry<Long, Double> score = best.poll();
+                results.add(new ArticleSearchResultDTO(score.getKey(), articles.get(score.getKey()).title, score.getValue()));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //lower case, without accents, split on anything that is not a letter or a digit
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() > 1) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void removeUnlocked(Long id) {
+        IndexedArticle previous = articles.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms) {
+            Map<Long, Integer> matches = postings.get(term);
+            matches.remove(id);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= previous.length;
+    }
+
+    private static final class IndexedArticle {
+        private final String title;
+        private final int length;
+        private final Set<String> terms;
+
+        private IndexedArticle(String title, int length, Set<String> terms) {
+            this.title = title;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+}
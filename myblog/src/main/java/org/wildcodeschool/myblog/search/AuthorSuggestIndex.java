@@ -0,0 +1,184 @@
+package org.wildcodeschool.myblog.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.wildcodeschool.myblog.dto.AuthorDTO;
+import org.wildcodeschool.myblog.model.Author;
+import org.wildcodeschool.myblog.repository.AuthorRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//In-memory autocomplete over the names of the authors, without case or accents.
+//Every author has one key per word of "firstname lastname" (from that word to the end), kept in a sorted array:
+//a prefix is a binary search then a scan over the matching keys only.
+//Readers get an immutable snapshot, AuthorService swaps a new one in on every write.
+@Component
+public class AuthorSuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorSuggestIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing((Key key) -> key.text).thenComparingLong(key -> key.authorId);
+
+    private final AuthorRepository authorRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(new Key[0]));
+
+    public AuthorSuggestIndex(AuthorRepository authorRepository) {
+        this.authorRepository = authorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Key> keys = new ArrayList<>();
+        int count = 0;
+        for (Author author : authorRepository.findAll()) {
+            addKeys(keys, author.getId(), new Name(author.getFirstname(), author.getLastname()));
+            count++;
+        }
+        Key[] sorted = keys.toArray(new Key[0]);
+        Arrays.sort(sorted, KEY_ORDER);
+        snapshot.set(new Snapshot(sorted));
+        logger.info("Author suggestions loaded with {} authors", count);
+    }
+
+    //writers are rare, each one copies the snapshot once: the other keys are merged with the new ones, never sorted again
+    public synchronized void index(Long id, String firstname, String lastname) {
+        snapshot.set(snapshot.get().with(id, new Name(firstname, lastname)));
+    }
+
+    public synchronized void remove(Long id) {
+        snapshot.set(snapshot.get().with(id, null));
+    }
+
+    //at most limit authors whose first name, last name or any later word starts with the prefix, by matching key
+    public List<AuthorDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Key[] keys = snapshot.get().keys;
+        Set<Long> ids = new HashSet<>();
+        List<AuthorDTO> suggestions = new ArrayList<>();
+        for (int i = lowerBound(keys, normalized); i < keys.length && suggestions.size() < limit && keys[i].text.startsWith(normalized); i++) {
+            Key key = keys[i];
+            if (ids.add(key.authorId)) {
+                AuthorDTO authorDTO = new AuthorDTO();
+                authorDTO.setId(key.authorId);
+                authorDTO.setFirstname(key.name.firstname);
+                authorDTO.setLastname(key.name.lastname);
+                suggestions.add(authorDTO);
+            }
+        }
+        return suggestions;
+    }
+
+    //lower case, without accents, words separated by one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    //first key not smaller than the prefix
+    private static int lowerBound(Key[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].text.compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void addKeys(List<Key> keys, long id, Name name) {
+        // a missing first or last name is no word, not "null"
+        String fullName = Stream.of(name.firstname, name.lastname).filter(Objects::nonNull).collect(Collectors.joining(" "));
+        String[] words = normalize(fullName).split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (!words[i].isEmpty()) {
+                keys.add(new Key(String.join(" ", Arrays.copyOfRange(words, i, words.length)), id, name));
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        // never modified once the snapshot is published
+        private final Key[] keys;
+
+        private Snapshot(Key[] keys) {
+            this.keys = keys;
+        }
+
+        //this snapshot with the keys of an author replaced, or removed when name is null.
+        //The old keys are found by id, the new ones go where a binary search puts them, the rest is copied in blocks.
+        private Snapshot with(long id, Name name) {
+            Key[] kept = new Key[keys.length];
+            int keptSize = 0;
+            for (Key key : keys) {
+                if (key.authorId != id) {
+                    kept[keptSize++] = key;
+                }
+            }
+            List<Key> added = new ArrayList<>();
+            if (name != null) {
+                addKeys(added, id, name);
+                added.sort(KEY_ORDER);
+            }
+
+            Key[] merged = new Key[keptSize + added.size()];
+            int from = 0;
+            int size = 0;
+            for (Key key : added) {
+                int position = Arrays.binarySearch(kept, from, keptSize, key, KEY_ORDER);
+                // never found, the author's own keys are gone
+                int insertion = -position - 1;
+                System.arraycopy(kept, from, merged, size, insertion - from);
+                size += insertion - from;
+                merged[size++] = key;
+                from = insertion;
+            }
+            System.arraycopy(kept, from, merged, size, keptSize - from);
+            return new Snapshot(merged);
+        }
+    }
+
+    private static final class Key {
+        private final String text;
+        private final long authorId;
+        private final Name name;
+
+        private Key(String text, long authorId, Name name) {
+            this.text = text;
+            this.authorId = authorId;
+            this.name = name;
+        }
+    }
+
+    private static final class Name {
+        private final String firstname;
+        private final String lastname;
+
+        private Name(String firstname, String lastname) {
+            this.firstname = firstname;
+            this.lastname = lastname;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.wildcodeschool.myblog.security;
+
+import org.springframework.security.core.Authentication;
+
+//Decides who may change an article, from what Spring Security already authenticated
+public interface ArticleAuthorization {
+
+    boolean canUpdate(Authentication authentication, Long articleId);
+
+    boolean canDelete(Authentication authentication, Long articleId);
+}
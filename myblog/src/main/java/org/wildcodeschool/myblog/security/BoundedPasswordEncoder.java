@@ -0,0 +1,107 @@
+package org.wildcodeschool.myblog.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.wildcodeschool.myblog.exception.PasswordEncoderBusyException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//BCrypt runs on its own small pool so that a burst of logins cannot take every CPU from the request threads.
+//A caller waits at most queueTimeout for a free slot, after that the request fails fast with a 503.
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final BCryptPasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final Duration queueTimeout;
+
+    public BoundedPasswordEncoder(int strength, int threads, Duration queueTimeout) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.executor = Executors.newFixedThreadPool(threads, new PasswordThreadFactory());
+        // as many slots as threads: the executor never queues, the waiting happens on the semaphore with a timeout
+        this.slots = new Semaphore(threads, true);
+        this.queueTimeout = queueTimeout;
+    }
+
+    //Hashes once with the configured cost and compares with the target, each +1 on the cost doubles the time
+    public Duration calibrate(Duration targetLatency) {
+        long start = System.nanoTime();
+        delegate.encode("calibration");
+        Duration measured = Duration.ofNanos(System.nanoTime() - start);
+        if (measured.compareTo(targetLatency) > 0) {
+            logger.warn("BCrypt hash took {} ms, above the {} ms target, consider lowering security.password.bcrypt-strength",
+                    measured.toMillis(), targetLatency.toMillis());
+        } else {
+            logger.info("BCrypt hash took {} ms for a {} ms target", measured.toMillis(), targetLatency.toMillis());
+        }
+        return measured;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    //true when the stored hash has a lower cost than the configured one, Spring then re-hashes on login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            if (!slots.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new PasswordEncoderBusyException("Trop de connexions en cours, réessayez dans un instant :(");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordEncoderBusyException("Connexion interrompue :(");
+        }
+        try {
+            return executor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordEncoderBusyException("Connexion interrompue :(");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            slots.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static class PasswordThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-encoder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -4,46 +4,65 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.wildcodeschool.myblog.Service.JwtService;
 
 import java.io.IOException;
-import java.util.Date;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
     private final UserDetailsService userDetailsService;
+    private final boolean statelessPrincipal;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
-        this.jwtService = jwtService;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, TokenRevocationList tokenRevocationList,
+                                   UserDetailsService userDetailsService,
+                                   @Value("${security.jwt.stateless-principal}") boolean statelessPrincipal) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationList = tokenRevocationList;
         this.userDetailsService = userDetailsService;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ") && SecurityContextHolder.getContext().getAuthentication() == null) {
             String jwt = authHeader.substring(7);
-            String username = jwtService.extractClaims(jwt).getSubject();
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.extractClaims(jwt).getExpiration().after(new Date())) {
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
+            VerifiedToken token = verifiedTokenCache.verify(jwt);
+
+            // checked on cache hits too, a token can be revoked after it was first verified
+            if (token != null && !tokenRevocationList.isRevoked(token.getId())) {
+                UsernamePasswordAuthenticationToken authentication;
+                if (statelessPrincipal) {
+                    // the signed roles are trusted as is, no database access
+                    authentication = new UsernamePasswordAuthenticationToken(token.getSubject(), null, token.getAuthorities());
+                } else {
+                    authentication = loadAuthentication(token.getSubject());
+                }
+                if (authentication != null) {
+                    authentication.setDetails(token);
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private UsernamePasswordAuthenticationToken loadAuthentication(String username) {
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package org.wildcodeschool.myblog.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Throttles the routes that cost the most: /auth/** (BCrypt) and article writes (database).
+//Refreshing a token checks no password, it has its own, wider bucket so that refreshing never locks a client out of logging in.
+//Authenticated requests are counted per user, the others per client IP. Runs after the JWT filter.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final RateLimiter rateLimiter = new RateLimiter();
+    private final int authCapacity;
+    private final long authRefillNanos;
+    private final int refreshCapacity;
+    private final long refreshRefillNanos;
+    private final int writeCapacity;
+    private final long writeRefillNanos;
+    private final long idleNanos;
+
+    public RateLimitFilter(@Value("${rate-limit.auth.capacity}") int authCapacity,
+                           @Value("${rate-limit.auth.per-minute}") int authPerMinute,
+                           @Value("${rate-limit.refresh.capacity}") int refreshCapacity,
+                           @Value("${rate-limit.refresh.per-minute}") int refreshPerMinute,
+                           @Value("${rate-limit.write.capacity}") int writeCapacity,
+                           @Value("${rate-limit.write.per-minute}") int writePerMinute,
+                           @Value("${rate-limit.idle-timeout}") Duration idleTimeout) {
+        this.authCapacity = authCapacity;
+        this.authRefillNanos = TimeUnit.MINUTES.toNanos(1) / authPerMinute;
+        this.refreshCapacity = refreshCapacity;
+        this.refreshRefillNanos = TimeUnit.MINUTES.toNanos(1) / refreshPerMinute;
+        this.writeCapacity = writeCapacity;
+        this.writeRefillNanos = TimeUnit.MINUTES.toNanos(1) / writePerMinute;
+        this.idleNanos = idleTimeout.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long wait;
+        if (path.equals("/auth/refresh")) {
+            wait = rateLimiter.tryAcquire("refresh:" + clientKey(request), refreshCapacity, refreshRefillNanos, System.nanoTime());
+        } else if (path.startsWith("/auth/")) {
+            wait = rateLimiter.tryAcquire("auth:" + clientKey(request), authCapacity, authRefillNanos, System.nanoTime());
+        } else if (WRITE_METHODS.contains(request.getMethod()) && (path.equals("/articles") || path.startsWith("/articles/"))) {
+            wait = rateLimiter.tryAcquire("write:" + clientKey(request), writeCapacity, writeRefillNanos, System.nanoTime());
+        } else {
+            wait = 0;
+        }
+
+        if (wait > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString(seconds));
+            response.setContentType("text/plain");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("Trop de requêtes, réessayez dans " + seconds + " s :(");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.idle-timeout}")
+    public void evictIdle() {
+        rateLimiter.evictIdle(idleNanos, System.nanoTime());
+    }
+
+    //behind a proxy the client IP comes from X-Forwarded-For, see server.forward-headers-strategy
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
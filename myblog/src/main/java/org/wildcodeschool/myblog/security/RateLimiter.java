@@ -0,0 +1,55 @@
+package org.wildcodeschool.myblog.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Token buckets by key, in a ConcurrentHashMap so that different keys never contend.
+//A bucket is a single timestamp updated by CAS (the GCRA form of a token bucket): no lock and no refill thread.
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    //0 when a token was taken, otherwise the nanoseconds to wait for the next one
+    public long tryAcquire(String key, int capacity, long refillIntervalNanos, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(now));
+        }
+        return bucket.tryAcquire(capacity, refillIntervalNanos, now);
+    }
+
+    //a bucket untouched for idleNanos is full again, dropping it changes nothing for its key
+    public int evictIdle(long idleNanos, long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> now - bucket.theoreticalArrival.get() > idleNanos);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+        //when the bucket would be full again if nothing else were taken
+        private final AtomicLong theoreticalArrival;
+
+        private Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        private long tryAcquire(int capacity, long refillIntervalNanos, long now) {
+            long burst = refillIntervalNanos * capacity;
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + refillIntervalNanos;
+                long wait = next - now - burst;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
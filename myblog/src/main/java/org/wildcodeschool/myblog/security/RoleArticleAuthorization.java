@@ -0,0 +1,37 @@
+package org.wildcodeschool.myblog.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+//Admins and authors may change any article. The decision only reads the granted authorities,
+//the user is never loaded again.
+@Component
+public class RoleArticleAuthorization implements ArticleAuthorization {
+
+    private static final Set<String> EDITOR_ROLES = Set.of("ROLE_ADMIN", "ROLE_AUTHOR");
+
+    @Override
+    public boolean canUpdate(Authentication authentication, Long articleId) {
+        return isEditor(authentication);
+    }
+
+    @Override
+    public boolean canDelete(Authentication authentication, Long articleId) {
+        return isEditor(authentication);
+    }
+
+    private boolean isEditor(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (EDITOR_ROLES.contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package org.wildcodeschool.myblog.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.wildcodeschool.myblog.model.RevokedToken;
+import org.wildcodeschool.myblog.repository.RevokedTokenRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+//Revoked access tokens by "jti". Every request asks the Bloom filter first: a token that was never revoked
+//is answered from memory, only a "maybe" goes to the database.
+//The filter is rebuilt from the table on a schedule, which drops expired entries and picks up
+//revocations made by other instances.
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${security.jwt.revocation.expected-size}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(tokenId);
+    }
+
+    //synchronized with the rebuild so that a revocation cannot land in a filter that is being replaced,
+    //the row is committed by save() before the lock is released
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null) {
+            return;
+        }
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setId(tokenId);
+        revokedToken.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+        revokedTokenRepository.save(revokedToken);
+        filter.add(tokenId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.rebuild-interval}", initialDelayString = "${security.jwt.revocation.rebuild-interval}")
+    public synchronized void purgeAndRebuild() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired revoked tokens", purged);
+        }
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        List<String> ids = revokedTokenRepository.findAllIds();
+        // never sized below the expected count, and with room to grow until the next rebuild
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, ids.size() * 2), FALSE_POSITIVE_RATE);
+        ids.forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
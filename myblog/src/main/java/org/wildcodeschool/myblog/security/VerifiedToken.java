@@ -0,0 +1,44 @@
+package org.wildcodeschool.myblog.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collection;
+
+//What a JWT proved once its signature was checked
+public class VerifiedToken {
+
+    private final String id;
+    private final String subject;
+    private final Collection<GrantedAuthority> authorities;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String id, String subject, Collection<GrantedAuthority> authorities, Instant expiresAt) {
+        this.id = id;
+        this.subject = subject;
+        this.authorities = authorities;
+        this.expiresAt = expiresAt;
+    }
+
+    //"jti" claim, null for tokens issued before it existed
+    public String getId() {
+        return id;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    //from the signed "roles" claim
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,96 @@
+package org.wildcodeschool.myblog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.wildcodeschool.myblog.Service.JwtService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//Tokens whose signature was already checked, keyed by their SHA-256 and kept until their expiration.
+//A repeated token costs a hash and a lookup instead of a signature check.
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final Cache<String, VerifiedToken> tokens;
+
+    public VerifiedTokenCache(JwtService jwtService, MeterRegistry meterRegistry,
+                              @Value("${security.jwt.token-cache.maximum-size}") long maximumSize) {
+        this.jwtService = jwtService;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireWithToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.tokens");
+    }
+
+    //the verified token, or null when the token is invalid or expired
+    public VerifiedToken verify(String jwt) {
+        String hash = TokenHashes.sha256(jwt);
+        VerifiedToken cached = tokens.getIfPresent(hash);
+        if (cached != null) {
+            return cached.isExpired() ? null : cached;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.extractClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        VerifiedToken verified = new VerifiedToken(claims.getId(), claims.getSubject(), extractAuthorities(claims),
+                claims.getExpiration().toInstant());
+        tokens.put(hash, verified);
+        return verified;
+    }
+
+    //"roles" is written from UserDetails.getAuthorities(), so each role is {"authority": "ROLE_..."}
+    private static Collection<GrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof List<?> list)) {
+            return Set.of();
+        }
+        return list.stream()
+                .map(role -> role instanceof Map<?, ?> map ? map.get("authority") : role)
+                .filter(authority -> authority != null)
+                .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(authority.toString()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    //an entry lives exactly as long as its token
+    private static final class ExpireWithToken implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String hash, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(hash, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
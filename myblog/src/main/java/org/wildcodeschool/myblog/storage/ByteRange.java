@@ -0,0 +1,84 @@
+package org.wildcodeschool.myblog.storage;
+
+//The part of a file asked by a "Range: bytes=..." header. Only a single range is honoured, a header with
+//several ranges or a syntax error is ignored and the whole file is sent, as RFC 9110 allows.
+public class ByteRange {
+
+    private final long start;
+    private final long length;
+    private final boolean partial;
+    private final boolean satisfiable;
+
+    private ByteRange(long start, long length, boolean partial, boolean satisfiable) {
+        this.start = start;
+        this.length = length;
+        this.partial = partial;
+        this.satisfiable = satisfiable;
+    }
+
+    public static ByteRange parse(String header, long size) {
+        ByteRange whole = new ByteRange(0, size, false, true);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return whole;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return whole;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // "-500": the last 500 bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new ByteRange(0, 0, true, false);
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (last.isEmpty()) {
+                    end = size - 1;
+                } else {
+                    long requestedEnd = Long.parseLong(last);
+                    if (requestedEnd < start) {
+                        return whole;
+                    }
+                    end = Math.min(requestedEnd, size - 1);
+                }
+            }
+            if (start >= size) {
+                return new ByteRange(0, 0, true, false);
+            }
+            return new ByteRange(start, end - start + 1, true, true);
+        } catch (NumberFormatException e) {
+            return whole;
+        }
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    //false when the whole file is sent with a 200
+    public boolean isPartial() {
+        return partial;
+    }
+
+    //false when the range starts past the end of the file, answered with a 416
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    public String toContentRange(long size) {
+        return satisfiable ? "bytes " + start + "-" + (start + length - 1) + "/" + size : "bytes */" + size;
+    }
+}
@@ -0,0 +1,236 @@
+package org.wildcodeschool.myblog.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.wildcodeschool.myblog.model.Image;
+import org.wildcodeschool.myblog.model.ImageDerivativeJob;
+import org.wildcodeschool.myblog.model.ImageVariant;
+import org.wildcodeschool.myblog.repository.ImageDerivativeJobRepository;
+import org.wildcodeschool.myblog.repository.ImageRepository;
+import org.wildcodeschool.myblog.repository.ImageVariantRepository;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Resized copies of uploaded images, made in the background.
+//Jobs are rows of image_derivative_job: an upload adds one, a poller claims as many as the workers have room for,
+//so a burst of uploads waits in the table instead of in memory. One worker per core.
+@Component
+public class ImageDerivativePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativePipeline.class);
+
+    private final ImageDerivativeJobRepository jobRepository;
+    private final ImageRepository imageRepository;
+    private final ImageVariantRepository imageVariantRepository;
+    private final ImageStore imageStore;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolExecutor workers;
+    private final int[] widths;
+    private final int maxAttempts;
+    private final long maxPixels;
+
+    public ImageDerivativePipeline(ImageDerivativeJobRepository jobRepository, ImageRepository imageRepository,
+                                   ImageVariantRepository imageVariantRepository, ImageStore imageStore,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${images.derivatives.widths}") int[] widths,
+                                   @Value("${images.derivatives.queue-capacity}") int queueCapacity,
+                                   @Value("${images.derivatives.max-attempts}") int maxAttempts,
+                                   @Value("${images.derivatives.max-pixels}") long maxPixels) {
+        this.jobRepository = jobRepository;
+        this.imageRepository = imageRepository;
+        this.imageVariantRepository = imageVariantRepository;
+        this.imageStore = imageStore;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.widths = widths;
+        this.maxAttempts = maxAttempts;
+        this.maxPixels = maxPixels;
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    //called in the transaction that creates the image, the job is committed with it
+    public void enqueue(Image image) {
+        if (image.getContentHash() == null) {
+            return;
+        }
+        ImageDerivativeJob job = new ImageDerivativeJob();
+        job.setImageId(image.getId());
+        job.setStatus(ImageDerivativeJob.Status.PENDING);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int released = jobRepository.updateStatus(ImageDerivativeJob.Status.RUNNING, ImageDerivativeJob.Status.PENDING);
+        if (released > 0) {
+            logger.info("{} image derivative jobs interrupted by the last shutdown are pending again", released);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${images.derivatives.poll-interval}")
+    public void poll() {
+        int room = workers.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        for (Long jobId : jobRepository.findIdsByStatus(ImageDerivativeJob.Status.PENDING, Limit.of(room))) {
+            if (jobRepository.claim(jobId, ImageDerivativeJob.Status.PENDING, ImageDerivativeJob.Status.RUNNING, LocalDateTime.now()) == 1) {
+                workers.execute(() -> run(jobId));
+            }
+        }
+    }
+
+    private void run(Long jobId) {
+        ImageDerivativeJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        try {
+            generate(job.getImageId());
+            finish(jobId, ImageDerivativeJob.Status.DONE, null);
+        } catch (ImageTooLargeException e) {
+            // the same bytes would be refused on every attempt
+            logger.warn("Derivatives of image {} skipped: {}", job.getImageId(), e.getMessage());
+            finish(jobId, ImageDerivativeJob.Status.FAILED, e.toString());
+        } catch (Exception e) {
+            logger.warn("Derivatives of image {} failed (attempt {})", job.getImageId(), job.getAttempts(), e);
+            finish(jobId, job.getAttempts() >= maxAttempts ? ImageDerivativeJob.Status.FAILED : ImageDerivativeJob.Status.PENDING, e.toString());
+        }
+    }
+
+    private void generate(Long imageId) throws IOException {
+        Image image = imageRepository.findById(imageId).orElse(null);
+        if (image == null || image.getContentHash() == null) {
+            // deleted since it was queued
+            return;
+        }
+        BufferedImage original;
+        try (InputStream content = imageStore.open(image.getContentHash())) {
+            original = decode(content, image.getContentType());
+        }
+
+        // PNG keeps transparency, everything else becomes JPEG
+        boolean png = !"image/jpeg".equals(image.getContentType());
+        String format = png ? "png" : "jpg";
+        String contentType = png ? "image/png" : "image/jpeg";
+        List<ImageVariant> variants = new ArrayList<>();
+        for (int width : widths) {
+            if (width >= original.getWidth()) {
+                continue;
+            }
+            int height = Math.max(1, (int) Math.round((double) original.getHeight() * width / original.getWidth()));
+            BufferedImage resized = resize(original, width, height, png);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ImageIO.write(resized, format, bytes);
+            StoredImage stored = imageStore.store(new ByteArrayInputStream(bytes.toByteArray()));
+
+            ImageVariant variant = new ImageVariant();
+            variant.setWidth(width);
+            variant.setHeight(height);
+            variant.setContentHash(stored.getContentHash());
+            variant.setContentType(contentType);
+            variant.setContentLength(stored.getSize());
+            variants.add(variant);
+        }
+
+        transaction.executeWithoutResult(status -> {
+            Image managedImage = imageRepository.findById(imageId).orElse(null);
+            if (managedImage == null) {
+                return;
+            }
+            // a retried job replaces what an earlier attempt left
+            imageVariantRepository.deleteAll(imageVariantRepository.findByImageId(imageId));
+            imageVariantRepository.flush();
+            variants.forEach(variant -> variant.setImage(managedImage));
+            imageVariantRepository.saveAll(variants);
+        });
+    }
+
+    //the dimensions are read from the header first: a few kilobytes of compressed PNG can describe
+    //gigabytes of pixels, those are refused before anything is allocated
+    private BufferedImage decode(InputStream content, String contentType) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No ImageIO reader for " + contentType);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new ImageTooLargeException(width + "x" + height + " pixels, more than " + maxPixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    //halves the size while it is more than twice the target, bilinear steps keep thumbnails sharp without bicubic's cost
+    private static BufferedImage resize(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private void finish(Long jobId, ImageDerivativeJob.Status status, String error) {
+        transaction.executeWithoutResult(transactionStatus -> jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 255)));
+            job.setUpdatedAt(LocalDateTime.now());
+        }));
+    }
+
+    private static final class ImageTooLargeException extends IOException {
+        private ImageTooLargeException(String message) {
+            super(message);
+        }
+    }
+}
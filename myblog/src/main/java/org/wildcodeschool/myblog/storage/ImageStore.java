@@ -0,0 +1,125 @@
+package org.wildcodeschool.myblog.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+//Image bytes on the local disk, addressed by the SHA-256 of their content: root/ab/cd/abcd....
+//Identical uploads share one file, and a file never changes once written.
+@Component
+public class ImageStore {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Path root;
+
+    public ImageStore(@Value("${images.storage.root}") String root) throws IOException {
+        this.root = Files.createDirectories(Path.of(root)).toAbsolutePath();
+    }
+
+    //copies the stream to a temporary file while hashing it, then moves it under its hash
+    public StoredImage store(InputStream content) {
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(root, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(contentHash);
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // same bytes already stored
+                Files.deleteIfExists(temporary);
+            }
+            return new StoredImage(contentHash, size);
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(temporary);
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public InputStream open(String contentHash) throws IOException {
+        return Files.newInputStream(pathOf(contentHash));
+    }
+
+    public boolean exists(String contentHash) {
+        return Files.isRegularFile(pathOf(contentHash));
+    }
+
+    public void delete(String contentHash) {
+        try {
+            Files.deleteIfExists(pathOf(contentHash));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Sends [start, start + length) of the file. With Tomcat's sendfile the connector writes the file to the socket
+    //after the request returns, the bytes never enter the JVM. Otherwise FileChannel.transferTo streams it in chunks.
+    public void transfer(String contentHash, long start, long length, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = pathOf(contentHash);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+            out.flush();
+        }
+    }
+
+    private Path pathOf(String contentHash) {
+        if (!contentHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash");
+        }
+        return root.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // left for the operating system to clean
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.wildcodeschool.myblog.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.wildcodeschool.myblog.Service.ImageRegistry;
+import org.wildcodeschool.myblog.repository.ImageDerivativeJobRepository;
+import org.wildcodeschool.myblog.repository.ImageRepository;
+import org.wildcodeschool.myblog.repository.ImageVariantRepository;
+import org.wildcodeschool.myblog.repository.OrphanImage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+//Deletes the images that no article uses any more, with their variants and stored files.
+//Each run looks at the next batch-size image ids after the previous run and deletes the orphans of that batch
+//with one statement per table, so a run holds its locks briefly and the table is walked at batch-size per interval.
+//Images younger than the grace period are kept: an upload is used by an article only after it was stored.
+@Component
+public class OrphanImageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanImageCollector.class);
+
+    private final ImageRepository imageRepository;
+    private final ImageVariantRepository imageVariantRepository;
+    private final ImageDerivativeJobRepository jobRepository;
+    private final ImageRegistry imageRegistry;
+    private final ImageStore imageStore;
+    private final TransactionTemplate transaction;
+    private final DistributionSummary scanned;
+    private final DistributionSummary reclaimed;
+    private final int batchSize;
+    private final Duration gracePeriod;
+    // last image id looked at, only this instance walks the table
+    private long cursor;
+
+    public OrphanImageCollector(ImageRepository imageRepository, ImageVariantRepository imageVariantRepository,
+                                ImageDerivativeJobRepository jobRepository, ImageRegistry imageRegistry, ImageStore imageStore,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${images.gc.batch-size}") int batchSize,
+                                @Value("${images.gc.grace-period}") Duration gracePeriod) {
+        this.imageRepository = imageRepository;
+        this.imageVariantRepository = imageVariantRepository;
+        this.jobRepository = jobRepository;
+        this.imageRegistry = imageRegistry;
+        this.imageStore = imageStore;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.gracePeriod = gracePeriod;
+        this.scanned = DistributionSummary.builder("images.gc.scanned")
+                .description("Image rows looked at by a run of the orphan image collector")
+                .register(meterRegistry);
+        this.reclaimed = DistributionSummary.builder("images.gc.reclaimed")
+                .description("Orphan image rows deleted by a run of the orphan image collector")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${images.gc.interval}", initialDelayString = "${images.gc.interval}")
+    public synchronized void collect() {
+        List<Long> ids = imageRepository.findIdsAfter(cursor, Limit.of(batchSize));
+        scanned.record(ids.size());
+        if (ids.isEmpty()) {
+            // end of the table, the next run starts over
+            cursor = 0;
+            reclaimed.record(0);
+            return;
+        }
+        cursor = ids.get(ids.size() - 1);
+
+        List<OrphanImage> orphans;
+        List<String> contentHashes = new ArrayList<>();
+        try {
+            orphans = transaction.execute(status -> {
+                List<OrphanImage> found = imageRepository.findOrphans(ids, LocalDateTime.now().minus(gracePeriod));
+                if (found.isEmpty()) {
+                    return found;
+                }
+                List<Long> orphanIds = found.stream().map(OrphanImage::getId).toList();
+                // an article saved meanwhile with one of these images makes the delete fail, the batch is retried next time round
+                contentHashes.addAll(imageVariantRepository.findContentHashesByImageIdIn(orphanIds));
+                imageVariantRepository.deleteByImageIdIn(orphanIds);
+                jobRepository.deleteByImageIdIn(orphanIds);
+                imageRepository.deleteAllByIdInBatch(orphanIds);
+                return found;
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Orphan images up to id {} are used again, kept for now", cursor);
+            reclaimed.record(0);
+            return;
+        }
+        reclaimed.record(orphans.size());
+        // once committed, so that a url resolved meanwhile cannot put a deleted id back in the registry
+        imageRegistry.evictUrlHashes(orphans.stream().map(OrphanImage::getUrlHash).filter(Objects::nonNull).toList());
+
+        // files go once the rows are committed, unless other rows have the same bytes
+        orphans.stream().map(OrphanImage::getContentHash).filter(Objects::nonNull).forEach(contentHashes::add);
+        for (String contentHash : contentHashes) {
+            if (!imageRepository.existsByContentHash(contentHash) && !imageVariantRepository.existsByContentHash(contentHash)) {
+                imageStore.delete(contentHash);
+            }
+        }
+        if (!orphans.isEmpty()) {
+            logger.info("{} orphan images deleted out of {} scanned", orphans.size(), ids.size());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.wildcodeschool.myblog.storage;
+
+//Where ImageStore put an upload: the hex SHA-256 of the bytes and their size
+public class StoredImage {
+
+    private final String contentHash;
+    private final long size;
+
+    public StoredImage(String contentHash, long size) {
+        this.contentHash = contentHash;
+        this.size = size;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,105 @@
+package org.wildcodeschool.myblog.Service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
+import org.wildcodeschool.myblog.feed.LatestArticlesFeed;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.model.Article;
+import org.wildcodeschool.myblog.model.Category;
+import org.wildcodeschool.myblog.repository.ArticleRepository;
+import org.wildcodeschool.myblog.repository.CategoryRepository;
+import org.wildcodeschool.myblog.search.ArticleSearchIndex;
+import org.wildcodeschool.myblog.security.ArticleAuthorization;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:myblog-feed;NON_KEYWORDS=USER",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ArticleService.class, ArticleMapper.class, LatestArticlesFeed.class})
+class ArticleFeedTest {
+
+    @MockitoBean
+    private ImageRegistry imageRegistry;
+
+    @MockitoBean
+    private ArticleAuthorization articleAuthorization;
+
+    @MockitoBean
+    private ArticleSearchIndex articleSearchIndex;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private LatestArticlesFeed latestArticlesFeed;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // the feed is only changed once the transaction commits, the rows are removed by hand
+    @AfterEach
+    void tearDown() {
+        articleRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void editingTheContentUpdatesTheExcerptOfTheFeed() {
+        Category category = new Category();
+        category.setName("Java");
+        entityManager.persist(category);
+        Article article = new Article();
+        article.setTitle("Premier");
+        article.setContent("Ancien contenu");
+        article.setCreatedAt(LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS));
+        article.setUpdatedAt(article.getCreatedAt());
+        article.setCategory(category);
+        entityManager.persist(article);
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        latestArticlesFeed.reload();
+
+        when(articleAuthorization.canUpdate(any(), anyLong())).thenReturn(true);
+        Authentication authentication = new UsernamePasswordAuthenticationToken("author@myblog.fr", null, List.of());
+        Article articleDetails = new Article();
+        articleDetails.setTitle("Premier");
+        articleDetails.setContent("Nouveau contenu");
+        TestTransaction.start();
+        articleService.updateArticle(article.getId(), articleDetails, authentication);
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(latestArticlesFeed.getLatest())
+                .extracting(ArticleSummaryDTO::getExcerpt)
+                .containsExactly("Nouveau contenu");
+    }
+}
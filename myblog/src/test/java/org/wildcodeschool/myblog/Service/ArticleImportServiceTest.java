@@ -0,0 +1,140 @@
+package org.wildcodeschool.myblog.Service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.wildcodeschool.myblog.dto.ArticleCreateDTO;
+import org.wildcodeschool.myblog.dto.ArticleImportItemDTO;
+import org.wildcodeschool.myblog.dto.ArticleImportResultDTO;
+import org.wildcodeschool.myblog.dto.AuthorContributionDTO;
+import org.wildcodeschool.myblog.dto.ImageDTO;
+import org.wildcodeschool.myblog.feed.LatestArticlesFeed;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.model.Article;
+import org.wildcodeschool.myblog.model.Author;
+import org.wildcodeschool.myblog.model.Category;
+import org.wildcodeschool.myblog.model.Image;
+import org.wildcodeschool.myblog.repository.ArticleBatchRepository;
+import org.wildcodeschool.myblog.search.ArticleSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:myblog;NON_KEYWORDS=USER",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({ArticleImportService.class, ArticleBatchRepository.class, ArticleMapper.class})
+class ArticleImportServiceTest {
+
+    private static final int ARTICLES = 1000;
+
+    @MockitoBean
+    private ImageRegistry imageRegistry;
+
+    @MockitoBean
+    private ArticleSearchIndex articleSearchIndex;
+
+    @MockitoBean
+    private LatestArticlesFeed latestArticlesFeed;
+
+    @Autowired
+    private ArticleImportService articleImportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+    private Image image;
+    private List<Author> authors;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Java");
+        entityManager.persist(category);
+        image = new Image();
+        image.setUrl("https://myblog.fr/import.png");
+        entityManager.persist(image);
+        authors = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Author author = new Author();
+            author.setFirstname("Prénom " + i);
+            author.setLastname("Nom " + i);
+            entityManager.persist(author);
+            authors.add(author);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void validArticlesAreInsertedWithTheirImagesAndAuthors() {
+        List<ArticleCreateDTO> articleCreateDTOs = new ArrayList<>();
+        for (int i = 0; i < ARTICLES; i++) {
+            articleCreateDTOs.add(articleCreateDTO("Article " + i, category.getId()));
+        }
+        // the second item references a category that does not exist
+        articleCreateDTOs.set(1, articleCreateDTO("Orphelin", category.getId() + 1000));
+
+        ArticleImportResultDTO result = articleImportService.importArticles(articleCreateDTOs);
+
+        assertThat(result.getImported()).isEqualTo(ARTICLES - 1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getItems().get(1).getArticleId()).isNull();
+        assertThat(result.getItems().get(1).getError()).contains("catégorie");
+
+        // every generated id is the one of the row holding that title
+        entityManager.clear();
+        for (int i : new int[]{0, 2, ARTICLES / 2, ARTICLES - 1}) {
+            Article article = entityManager.find(Article.class, result.getItems().get(i).getArticleId());
+            assertThat(article.getTitle()).isEqualTo("Article " + i);
+            assertThat(article.getExcerpt()).isEqualTo("Contenu de Article " + i);
+            assertThat(article.getCategory().getId()).isEqualTo(category.getId());
+        }
+        List<Long> articleIds = result.getItems().stream().map(ArticleImportItemDTO::getArticleId).filter(Objects::nonNull).toList();
+        assertThat(articleIds).doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article_image WHERE image_id = ?", Long.class, image.getId()))
+                .isEqualTo(ARTICLES - 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article_author WHERE contribution = 'Rédaction'", Long.class))
+                .isEqualTo(2L * (ARTICLES - 1));
+    }
+
+    private ArticleCreateDTO articleCreateDTO(String title, Long categoryId) {
+        ArticleCreateDTO articleCreateDTO = new ArticleCreateDTO();
+        articleCreateDTO.setTitle(title);
+        articleCreateDTO.setContent("Contenu de " + title);
+        articleCreateDTO.setCategoryId(categoryId);
+        ImageDTO imageDTO = new ImageDTO();
+        imageDTO.setId(image.getId());
+        articleCreateDTO.setImages(List.of(imageDTO));
+        List<AuthorContributionDTO> contributions = new ArrayList<>();
+        for (Author author : authors) {
+            AuthorContributionDTO contribution = new AuthorContributionDTO();
+            contribution.setAuthorId(author.getId());
+            contribution.setContribution("Rédaction");
+            contributions.add(contribution);
+        }
+        articleCreateDTO.setAuthors(contributions);
+        return articleCreateDTO;
+    }
+}
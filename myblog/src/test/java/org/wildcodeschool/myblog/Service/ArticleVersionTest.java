@@ -0,0 +1,82 @@
+package org.wildcodeschool.myblog.Service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.wildcodeschool.myblog.feed.LatestArticlesFeed;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.mapper.CategoryMapper;
+import org.wildcodeschool.myblog.model.Article;
+import org.wildcodeschool.myblog.model.Category;
+import org.wildcodeschool.myblog.search.ArticleSearchIndex;
+import org.wildcodeschool.myblog.security.ArticleAuthorization;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:myblog;NON_KEYWORDS=USER",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ArticleService.class, ArticleMapper.class, CategoryService.class, CategoryMapper.class})
+class ArticleVersionTest {
+
+    @MockitoBean
+    private ImageRegistry imageRegistry;
+
+    @MockitoBean
+    private ArticleAuthorization articleAuthorization;
+
+    @MockitoBean
+    private ArticleSearchIndex articleSearchIndex;
+
+    @MockitoBean
+    private LatestArticlesFeed latestArticlesFeed;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void renamingTheCategoryChangesTheETagOfItsArticles() {
+        Category category = new Category();
+        category.setName("Java");
+        entityManager.persist(category);
+        Article article = new Article();
+        article.setTitle("Premier");
+        article.setContent("Contenu");
+        article.setCreatedAt(LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS));
+        article.setUpdatedAt(article.getCreatedAt());
+        article.setCategory(category);
+        entityManager.persist(article);
+        entityManager.flush();
+        entityManager.clear();
+
+        ResourceVersion before = articleService.getArticleVersion(article.getId());
+        ResourceVersion pageBefore = articleService.getArticlesPageVersion(null, null);
+
+        Category renamed = new Category();
+        renamed.setName("Kotlin");
+        categoryService.updateCategory(category.getId(), renamed);
+
+        ResourceVersion after = articleService.getArticleVersion(article.getId());
+        assertThat(after.getETag()).isNotEqualTo(before.getETag());
+        assertThat(after.getLastModified()).isGreaterThan(before.getLastModified());
+        assertThat(articleService.getArticlesPageVersion(null, null).getETag()).isNotEqualTo(pageBefore.getETag());
+    }
+}
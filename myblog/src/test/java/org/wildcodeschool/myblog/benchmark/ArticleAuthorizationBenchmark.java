@@ -0,0 +1,112 @@
+package org.wildcodeschool.myblog.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.wildcodeschool.myblog.exception.ResourceNotFoundException;
+import org.wildcodeschool.myblog.model.User;
+import org.wildcodeschool.myblog.repository.UserRepository;
+import org.wildcodeschool.myblog.security.ArticleAuthorization;
+import org.wildcodeschool.myblog.security.RoleArticleAuthorization;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Authorization of an article write. userLookup is the old path: UserRepository.findByEmail on an in-memory H2
+//database (the user row and its roles), then the role check updateArticle and deleteArticle used to do.
+//authorities is the new path: RoleArticleAuthorization reading the authorities of the request.
+//H2 runs in the same JVM, against MySQL every lookup also pays a network round trip.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArticleAuthorizationBenchmark {
+
+    private static final String EMAIL = "author@myblog.fr";
+
+    private final ArticleAuthorization articleAuthorization = new RoleArticleAuthorization();
+    private final Authentication authentication = new UsernamePasswordAuthenticationToken(EMAIL, null,
+            List.of(new SimpleGrantedAuthority("ROLE_AUTHOR")));
+
+    //the database is only started for the benchmark that queries it
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private HikariDataSource dataSource;
+        private EntityManagerFactory entityManagerFactory;
+        private UserRepository userRepository;
+
+        @Setup
+        public void setUp() {
+            // pooled like the application's datasource, so that a lookup does not open a connection
+            dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:benchmark;NON_KEYWORDS=USER");
+            dataSource.setUsername("sa");
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setPackagesToScan("org.wildcodeschool.myblog.model");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factoryBean.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "create-drop",
+                    "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy"));
+            factoryBean.afterPropertiesSet();
+            entityManagerFactory = factoryBean.getObject();
+
+            // one entity manager per call outside of a transaction, as for a request
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            userRepository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+
+            EntityManager setupEntityManager = entityManagerFactory.createEntityManager();
+            setupEntityManager.getTransaction().begin();
+            User user = new User();
+            user.setEmail(EMAIL);
+            user.setPassword("not used");
+            user.setRoles(Set.of("ROLE_AUTHOR"));
+            setupEntityManager.persist(user);
+            setupEntityManager.getTransaction().commit();
+            setupEntityManager.close();
+        }
+
+        @TearDown
+        public void tearDown() {
+            entityManagerFactory.close();
+            dataSource.close();
+        }
+    }
+
+    // Hibernate's query path takes about 30 s to be compiled, the time per call keeps falling until then
+    @Benchmark
+    @Warmup(iterations = 15, time = 2)
+    public boolean userLookup(Database database) {
+        User user = database.userRepository.findByEmail(authentication.getName()).orElseThrow(()-> new ResourceNotFoundException("user not found"));
+        boolean isAdmin = user.getRoles().contains("ROLE_ADMIN");
+        boolean isAuthor = user.getRoles().contains("ROLE_AUTHOR");
+        return isAdmin || isAuthor;
+    }
+
+    @Benchmark
+    public boolean authorities() {
+        return articleAuthorization.canUpdate(authentication, 1L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ArticleAuthorizationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
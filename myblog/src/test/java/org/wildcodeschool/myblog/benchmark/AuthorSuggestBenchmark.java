@@ -0,0 +1,77 @@
+package org.wildcodeschool.myblog.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wildcodeschool.myblog.dto.AuthorDTO;
+import org.wildcodeschool.myblog.model.Author;
+import org.wildcodeschool.myblog.repository.AuthorRepository;
+import org.wildcodeschool.myblog.search.AuthorSuggestIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//Top 10 suggestions among 100 000 authors, for a one-letter prefix (many matches, stops at 10),
+//a longer prefix typed with accents and capitals, and a prefix matching nobody. indexOneAuthor is the cost of a write.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorSuggestBenchmark {
+
+    private static final int AUTHORS = 100_000;
+    private static final int LIMIT = 10;
+    private static final String[] FIRSTNAMES = {"Jean", "Hélène", "Émile", "Zoé", "Marc", "Anaïs", "Loïc", "Inès", "Paul", "Léa"};
+    private static final String[] LASTNAMES = {"Dupont", "Lefèvre", "Martin", "Bérard", "Garnier", "Rousseau", "Noël", "Moreau"};
+
+    private AuthorSuggestIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Author> authors = new ArrayList<>(AUTHORS);
+        for (long id = 1; id <= AUTHORS; id++) {
+            Author author = new Author();
+            author.setId(id);
+            author.setFirstname(FIRSTNAMES[random.nextInt(FIRSTNAMES.length)]);
+            author.setLastname(LASTNAMES[random.nextInt(LASTNAMES.length)] + "-" + random.nextInt(1000));
+            authors.add(author);
+        }
+        AuthorRepository authorRepository = Mockito.mock(AuthorRepository.class);
+        Mockito.when(authorRepository.findAll()).thenReturn(authors);
+        index = new AuthorSuggestIndex(authorRepository);
+        index.load();
+    }
+
+    @Benchmark
+    public void indexOneAuthor() {
+        index.index(1L, "Jean", "Dupont");
+    }
+
+    @Benchmark
+    public List<AuthorDTO> oneLetter() {
+        return index.suggest("l", LIMIT);
+    }
+
+    @Benchmark
+    public List<AuthorDTO> fullWordWithAccents() {
+        return index.suggest("HELENE bér", LIMIT);
+    }
+
+    @Benchmark
+    public List<AuthorDTO> noMatch() {
+        return index.suggest("xyz", LIMIT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthorSuggestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,57 @@
+package org.wildcodeschool.myblog.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.wildcodeschool.myblog.Service.JwtService;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+//Parse and verify throughput of one thread, so per core: the shared parser of JwtService
+//against a parser built from the base64 secret on every call, as extractClaims used to do.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class JwtParseBenchmark {
+
+    private String secretKey;
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        secretKey = Base64.getEncoder().encodeToString("benchmark-secret-key-of-32-bytes".getBytes());
+        jwtService = new JwtService(secretKey, "k1", "", 900000);
+        token = jwtService.generateToken(User.withUsername("author@myblog.fr").password("").roles("AUTHOR").build());
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return jwtService.extractClaims(token);
+    }
+
+    // the calls extractClaims made before the shared parser, deprecated jjwt API included
+    @SuppressWarnings("deprecation")
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parser()
+                .setSigningKey(secretKey)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
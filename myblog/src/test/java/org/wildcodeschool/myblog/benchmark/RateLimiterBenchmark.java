@@ -0,0 +1,56 @@
+package org.wildcodeschool.myblog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wildcodeschool.myblog.security.RateLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Cost of one rate-limit decision with 8 threads: all on the same bucket (one busy client),
+//or each on its own bucket (many clients). The limit is high enough to never reject.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private static final int CAPACITY = Integer.MAX_VALUE;
+    private static final long REFILL_NANOS = 1;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final RateLimiter rateLimiter = new RateLimiter();
+        final AtomicInteger threads = new AtomicInteger();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String key;
+
+        @Setup
+        public void setUp(Shared shared) {
+            key = "write:ip:10.0.0." + shared.threads.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public long sameKey(Shared shared) {
+        return shared.rateLimiter.tryAcquire("write:ip:10.0.0.1", CAPACITY, REFILL_NANOS, System.nanoTime());
+    }
+
+    @Benchmark
+    public long keyPerThread(Shared shared, Client client) {
+        return shared.rateLimiter.tryAcquire(client.key, CAPACITY, REFILL_NANOS, System.nanoTime());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package org.wildcodeschool.myblog.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wildcodeschool.myblog.security.BloomFilter;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//Per-request revocation check for a token that was not revoked, the common case.
+//The Bloom filter answers from memory, a set of every revoked id is the in-memory alternative,
+//a database lookup on each request costs a round trip on top of either.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRevocationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int revoked;
+
+    private BloomFilter filter;
+    private Set<String> revokedIds;
+    private String tokenId;
+
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(revoked, 0.001);
+        revokedIds = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < revoked; i++) {
+            String id = UUID.randomUUID().toString();
+            filter.add(id);
+            revokedIds.add(id);
+        }
+        tokenId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean bloomFilter() {
+        return filter.mightContain(tokenId);
+    }
+
+    @Benchmark
+    public boolean revokedSet() {
+        return revokedIds.contains(tokenId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenRevocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
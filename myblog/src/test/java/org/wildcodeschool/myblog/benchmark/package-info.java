@@ -0,0 +1,3 @@
+//JMH benchmarks, not part of mvn test: run the main() of a benchmark once the test classes are compiled,
+//with the test classpath (mvn dependency:build-classpath -Dmdep.includeScope=test).
+package org.wildcodeschool.myblog.benchmark;
@@ -0,0 +1,294 @@
+package org.wildcodeschool.myblog.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.wildcodeschool.myblog.dto.ArticleDTO;
+import org.wildcodeschool.myblog.dto.ArticleSummaryDTO;
+import org.wildcodeschool.myblog.dto.CategoryDTO;
+import org.wildcodeschool.myblog.mapper.ArticleMapper;
+import org.wildcodeschool.myblog.model.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:myblog;NON_KEYWORDS=USER",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ArticleMapper.class)
+class ArticleRepositoryTest {
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ArticleAuthorRepository articleAuthorRepository;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Category category;
+    private List<Author> authors;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        category = new Category();
+        category.setName("Java");
+        entityManager.persist(category);
+
+        authors = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Author author = new Author();
+            author.setFirstname("Prénom " + i);
+            author.setLastname("Nom " + i);
+            entityManager.persist(author);
+            authors.add(author);
+        }
+    }
+
+    @Test
+    void listPageCostsTheSameNumberOfStatementsWhateverItsSize() {
+        persistArticles(3);
+        long smallPage = countStatementsOfListPage(3);
+
+        persistArticles(30);
+        long largePage = countStatementsOfListPage(30);
+
+        assertThat(largePage).isEqualTo(smallPage);
+        // articles + category, images, article authors, authors
+        assertThat(largePage).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void detailViewIsLoadedWithoutPerAssociationQueries() {
+        Long id = persistArticles(1).get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        ArticleDTO article = articleMapper.convertToDTO(articleRepository.findWithDetailsById(id).orElseThrow());
+
+        assertThat(article.getAuthorDTOs()).hasSize(2);
+        assertThat(article.getImageUrls()).hasSize(2);
+        // article + category + authors, images
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void summariesArePagedWithTheirExcerpt() {
+        List<Article> articles = persistArticles(3);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ArticleSummaryDTO> firstPage = articleRepository.findSummaries(Limit.of(2));
+        ArticleSummaryDTO last = firstPage.get(1);
+        List<ArticleSummaryDTO> secondPage = articleRepository.findSummariesAfter(last.getCreatedAt(), last.getId(), Limit.of(2));
+
+        assertThat(firstPage).extracting(ArticleSummaryDTO::getId)
+                .containsExactly(articles.get(0).getId(), articles.get(1).getId());
+        assertThat(secondPage).extracting(ArticleSummaryDTO::getId).containsExactly(articles.get(2).getId());
+        assertThat(firstPage.get(0).getExcerpt()).isEqualTo("Contenu de l'article 0");
+        assertThat(firstPage.get(0).getCategoryName()).isEqualTo("Java");
+    }
+
+    @Test
+    void excerptsOfOlderRowsAreFilledFromTheContent() {
+        List<Article> articles = persistArticles(2);
+        entityManager.flush();
+        // the first article was written before the excerpt column existed
+        entityManager.createNativeQuery("UPDATE article SET excerpt = NULL WHERE id = :id")
+                .setParameter("id", articles.get(0).getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        List<Long> ids = articleRepository.findIdsWithoutExcerptAfter(0L, Limit.of(10));
+        assertThat(ids).containsExactly(articles.get(0).getId());
+        assertThat(articleRepository.fillExcerpts(ids)).isEqualTo(1);
+        assertThat(articleRepository.findIdsWithoutExcerptAfter(0L, Limit.of(10))).isEmpty();
+        assertThat(articleRepository.findSummaries(Limit.of(2)))
+                .extracting(ArticleSummaryDTO::getExcerpt)
+                .containsExactly("Contenu de l'article 0", "Contenu de l'article 1");
+    }
+
+    @Test
+    void categorySummariesAndCountsOnlySeeTheArticlesOfTheCategory() {
+        List<Article> articles = persistArticles(3);
+        Category empty = new Category();
+        empty.setName("Rust");
+        entityManager.persist(empty);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ArticleSummaryDTO> firstPage = articleRepository.findSummariesByCategory(category.getId(), Limit.of(2));
+        ArticleSummaryDTO last = firstPage.get(1);
+        assertThat(firstPage).extracting(ArticleSummaryDTO::getId)
+                .containsExactly(articles.get(0).getId(), articles.get(1).getId());
+        assertThat(articleRepository.findSummariesByCategoryAfter(category.getId(), last.getCreatedAt(), last.getId(), Limit.of(2)))
+                .extracting(ArticleSummaryDTO::getId).containsExactly(articles.get(2).getId());
+        assertThat(articleRepository.findSummariesByCategory(empty.getId(), Limit.of(2))).isEmpty();
+
+        assertThat(categoryRepository.findAllWithArticleCount())
+                .extracting(CategoryDTO::getName, CategoryDTO::getArticleCount)
+                .containsExactly(tuple("Java", 3L), tuple("Rust", 0L));
+        assertThat(categoryRepository.findWithArticleCountById(empty.getId()))
+                .hasValueSatisfying(dto -> assertThat(dto.getArticleCount()).isZero());
+    }
+
+    @Test
+    void authorContributionsAreAggregatedByKind() {
+        List<Article> articles = persistArticles(3);
+        // the first author wrote the first and last articles, and also proofread the first one
+        Author author = authors.get(0);
+        ArticleAuthor proofreading = new ArticleAuthor();
+        proofreading.setArticle(articles.get(0));
+        proofreading.setAuthor(entityManager.merge(author));
+        proofreading.setContribution("Relecture");
+        entityManager.persist(proofreading);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AuthorContribution> contributions = articleAuthorRepository.findContributionsByAuthorId(author.getId());
+        assertThat(contributions).extracting(AuthorContribution::getContribution, AuthorContribution::getArticleCount)
+                .containsExactly(tuple("Relecture", 1L), tuple("Rédaction", 2L));
+        assertThat(contributions).allSatisfy(contribution -> assertThat(contribution.getTotalArticleCount()).isEqualTo(2));
+        assertThat(contributions.get(1).getFirstPublishedAt()).isEqualTo(articles.get(2).getCreatedAt());
+        assertThat(contributions.get(1).getLastPublishedAt()).isEqualTo(articles.get(0).getCreatedAt());
+        assertThat(articleAuthorRepository.findLatestSummariesByAuthorId(author.getId(), Limit.of(1)))
+                .extracting(ArticleSummaryDTO::getId).containsExactly(articles.get(0).getId());
+    }
+
+    @Test
+    void articlesEmbeddingAChangedAuthorOrImageGetANewVersion() {
+        List<Article> articles = persistArticles(3);
+        Long imageId = articles.get(1).getImages().iterator().next().getId();
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime now = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+
+        // the first author is on the first and last articles
+        assertThat(articleRepository.touchByAuthorId(authors.get(0).getId(), now)).isEqualTo(2);
+        assertThat(articleRepository.findUpdatedAtById(articles.get(0).getId())).hasValue(now);
+        assertThat(articleRepository.findUpdatedAtById(articles.get(1).getId())).hasValue(articles.get(1).getUpdatedAt());
+
+        assertThat(articleRepository.touchByImageId(imageId, now.plusMinutes(1))).isEqualTo(1);
+        assertThat(articleRepository.findUpdatedAtById(articles.get(1).getId())).hasValue(now.plusMinutes(1));
+    }
+
+    @Test
+    void versionsFollowTheSameKeysetAsThePage() {
+        List<Article> articles = persistArticles(3);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ArticleVersion> versions = articleRepository.findVersionsByOrderByCreatedAtDescIdDesc(Limit.of(2));
+        ArticleVersion last = versions.get(1);
+
+        assertThat(versions).extracting(ArticleVersion::getId)
+                .containsExactly(articles.get(0).getId(), articles.get(1).getId());
+        assertThat(articleRepository.findVersionsAfter(articles.get(1).getCreatedAt(), last.getId(), Limit.of(2)))
+                .extracting(ArticleVersion::getId).containsExactly(articles.get(2).getId());
+        assertThat(articleRepository.findUpdatedAtById(articles.get(0).getId())).isPresent();
+    }
+
+    @Test
+    void exportStreamWalksArticlesByPrimaryKey() {
+        List<Article> articles = persistArticles(3);
+        entityManager.flush();
+        entityManager.clear();
+
+        try (Stream<Article> stream = articleRepository.streamAllByOrderByIdAsc()) {
+            assertThat(stream.map(Article::getId)).containsExactlyElementsOf(articles.stream().map(Article::getId).toList());
+        }
+    }
+
+    private long countStatementsOfListPage(int pageSize) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<ArticleDTO> page = articleRepository.findByOrderByCreatedAtDescIdDesc(Limit.of(pageSize)).stream()
+                .map(articleMapper::convertToDTO)
+                .toList();
+
+        assertThat(page).hasSize(pageSize);
+        assertThat(page).allSatisfy(article -> {
+            assertThat(article.getCategoryName()).isEqualTo("Java");
+            assertThat(article.getImageUrls()).hasSize(2);
+            assertThat(article.getAuthorDTOs()).hasSize(2);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int nextImage;
+
+    private List<Article> persistArticles(int count) {
+        Category managedCategory = entityManager.merge(category);
+        // columns keep microseconds at best
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Article> articles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Set<Image> images = new LinkedHashSet<>();
+            for (int j = 0; j < 2; j++) {
+                Image image = new Image();
+                // urls are unique in the image table
+                image.setUrl("https://example.com/" + nextImage++ + ".png");
+                entityManager.persist(image);
+                images.add(image);
+            }
+
+            Article article = new Article();
+            article.setTitle("Article " + i);
+            article.setContent("Contenu de l'article " + i);
+            article.setCreatedAt(now.minusMinutes(i));
+            article.setUpdatedAt(article.getCreatedAt());
+            article.setCategory(managedCategory);
+            article.setImages(images);
+            entityManager.persist(article);
+
+            for (int j = 0; j < 2; j++) {
+                ArticleAuthor articleAuthor = new ArticleAuthor();
+                articleAuthor.setArticle(article);
+                articleAuthor.setAuthor(entityManager.merge(authors.get((i + j) % authors.size())));
+                articleAuthor.setContribution("Rédaction");
+                entityManager.persist(articleAuthor);
+            }
+            articles.add(article);
+        }
+        return articles;
+    }
+}
@@ -0,0 +1,112 @@
+package org.wildcodeschool.myblog.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.wildcodeschool.myblog.model.Article;
+import org.wildcodeschool.myblog.model.Category;
+import org.wildcodeschool.myblog.model.Image;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:myblog;NON_KEYWORDS=USER",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ImageRepositoryTest {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void pagesImagesByIdAndReadsTheirArticleIdsFromTheJoinTable() {
+        Category category = new Category();
+        category.setName("Java");
+        entityManager.persist(category);
+
+        List<Image> images = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Image image = new Image();
+            image.setUrl("https://example.com/" + i + ".png");
+            entityManager.persist(image);
+            images.add(image);
+        }
+        // the first image is in two articles, the second in one, the third in none
+        Article first = persistArticle(category, "Premier", Set.of(images.get(0), images.get(1)));
+        Article second = persistArticle(category, "Second", Set.of(images.get(0)));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Image> page = imageRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        assertThat(page).extracting(Image::getId).containsExactly(images.get(0).getId(), images.get(1).getId());
+        List<Image> nextPage = imageRepository.findByIdGreaterThanOrderByIdAsc(page.get(1).getId(), Limit.of(2));
+        assertThat(nextPage).extracting(Image::getId).containsExactly(images.get(2).getId());
+
+        List<ImageArticleLink> links = imageRepository.findArticleLinks(List.of(images.get(0).getId(), images.get(1).getId(), images.get(2).getId()));
+        assertThat(links).extracting(ImageArticleLink::getImageId, ImageArticleLink::getArticleId).containsExactlyInAnyOrder(
+                tuple(images.get(0).getId(), first.getId()),
+                tuple(images.get(0).getId(), second.getId()),
+                tuple(images.get(1).getId(), first.getId()));
+    }
+
+    @Test
+    void findsOrphansOlderThanTheCutoff() {
+        Category category = new Category();
+        category.setName("Java");
+        entityManager.persist(category);
+
+        List<Image> images = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Image image = new Image();
+            image.setUrl("https://example.com/orphan-" + i + ".png");
+            entityManager.persist(image);
+            images.add(image);
+        }
+        persistArticle(category, "Premier", Set.of(images.get(0)));
+        entityManager.flush();
+        // the last image was stored before created_at existed
+        entityManager.createNativeQuery("UPDATE image SET created_at = NULL WHERE id = :id")
+                .setParameter("id", images.get(2).getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        List<Long> ids = images.stream().map(Image::getId).toList();
+        assertThat(imageRepository.findOrphans(ids, LocalDateTime.now().plusMinutes(1)))
+                .extracting(OrphanImage::getId, OrphanImage::getUrlHash)
+                .containsExactlyInAnyOrder(
+                        tuple(images.get(1).getId(), images.get(1).getUrlHash()),
+                        tuple(images.get(2).getId(), images.get(2).getUrlHash()));
+        assertThat(imageRepository.findOrphans(ids, LocalDateTime.now().minusMinutes(1)))
+                .extracting(OrphanImage::getId)
+                .containsExactly(images.get(2).getId());
+    }
+
+    private Article persistArticle(Category category, String title, Set<Image> images) {
+        Article article = new Article();
+        article.setTitle(title);
+        article.setContent("Contenu de " + title);
+        article.setCreatedAt(LocalDateTime.now());
+        article.setUpdatedAt(article.getCreatedAt());
+        article.setCategory(category);
+        article.setImages(new LinkedHashSet<>(images));
+        entityManager.persist(article);
+        return article;
+    }
+}
@@ -0,0 +1,127 @@
+package org.wildcodeschool.myblog.search;
+
+import org.junit.jupiter.api.Test;
+import org.wildcodeschool.myblog.dto.ArticleSearchResultDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArticleSearchIndexTest {
+
+    // load() is never called, articles only come from index()
+    private final ArticleSearchIndex index = new ArticleSearchIndex(null);
+
+    @Test
+    void tokensAreLowerCaseWithoutAccentsOrSingleCharacters() {
+        assertThat(ArticleSearchIndex.tokenize("Élément, C'est l'ÉTÉ : a 42!"))
+                .containsExactly("element", "est", "ete", "42");
+        assertThat(ArticleSearchIndex.tokenize("  ")).isEmpty();
+    }
+
+    @Test
+    void moreOccurrencesRankHigherAtEqualLength() {
+        index.index(1L, "Premier", "java spring spring spring");
+        index.index(2L, "Second", "java java java spring");
+
+        assertThat(ids(index.search("java", 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void aShorterArticleRanksHigherForTheSameOccurrences() {
+        index.index(1L, "Premier", "java " + "remplissage ".repeat(50));
+        index.index(2L, "Second", "java court");
+
+        assertThat(ids(index.search("java", 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void aTitleTermWeighsMoreThanOneInTheContent() {
+        index.index(1L, "Premier", "spring java");
+        index.index(2L, "Java", "spring boot");
+
+        assertThat(ids(index.search("java", 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void termsOfAllTheQueryAddUp() {
+        index.index(1L, "Premier", "java");
+        index.index(2L, "Second", "java spring");
+        index.index(3L, "Troisième", "kotlin");
+
+        List<ArticleSearchResultDTO> results = index.search("Java Spring", 10);
+
+        assertThat(ids(results)).containsExactly(2L, 1L);
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+    }
+
+    @Test
+    void reindexingAnArticleReplacesItsOldTerms() {
+        index.index(1L, "Java", "les bases de java");
+        index.index(1L, "Kotlin", "les bases de kotlin");
+
+        assertThat(index.search("java", 10)).isEmpty();
+        List<ArticleSearchResultDTO> results = index.search("kotlin", 10);
+        assertThat(ids(results)).containsExactly(1L);
+        assertThat(results.get(0).getTitle()).isEqualTo("Kotlin");
+    }
+
+    @Test
+    void aRemovedArticleIsNoLongerFound() {
+        index.index(1L, "Premier", "java");
+        index.index(2L, "Second", "java");
+
+        index.remove(1L);
+        index.remove(3L);
+
+        assertThat(ids(index.search("java", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void onlyTheBestScoresAreKeptInOrder() {
+        // article i holds "java" i times among 10 words, same title so that every length is the same
+        for (long id = 1; id <= 10; id++) {
+            index.index(id, "Article", "java ".repeat((int) id) + "mot ".repeat(10 - (int) id));
+        }
+
+        List<ArticleSearchResultDTO> results = index.search("java", 3);
+
+        assertThat(ids(results)).containsExactly(10L, 9L, 8L);
+        assertThat(results).extracting(ArticleSearchResultDTO::getScore).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+    }
+
+    @Test
+    void readersAndWritersCanRunConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                long first = thread * 250L + 1;
+                futures.add(executor.submit(() -> LongStream.range(first, first + 250)
+                        .forEach(id -> index.index(id, "Article " + id, "java concurrent " + id))));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        assertThat(index.search("java concurrent", 5)).hasSizeLessThanOrEqualTo(5);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(index.search("java", 2000)).hasSize(1000);
+        assertThat(ids(index.search("999", 10))).containsExactly(999L);
+    }
+
+    private static List<Long> ids(List<ArticleSearchResultDTO> results) {
+        return results.stream().map(ArticleSearchResultDTO::getId).toList();
+    }
+}
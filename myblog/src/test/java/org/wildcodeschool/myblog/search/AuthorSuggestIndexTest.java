@@ -0,0 +1,77 @@
+package org.wildcodeschool.myblog.search;
+
+import org.junit.jupiter.api.Test;
+import org.wildcodeschool.myblog.dto.AuthorDTO;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorSuggestIndexTest {
+
+    // load() is never called, authors only come from index()
+    private final AuthorSuggestIndex index = new AuthorSuggestIndex(null);
+
+    @Test
+    void accentsAndCaseAreIgnored() {
+        index.index(1L, "Hélène", "Lefèvre");
+
+        assertThat(ids(index.suggest("helene", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("LEFEV", 10))).containsExactly(1L);
+        assertThat(index.suggest("helene", 10).get(0).getFirstname()).isEqualTo("Hélène");
+    }
+
+    @Test
+    void aPrefixCanSpanSeveralWords() {
+        index.index(1L, "Jean", "Dupont");
+        index.index(2L, "Jean", "Martin");
+        index.index(3L, "Jean-Luc", "Durand");
+
+        assertThat(ids(index.suggest("jean d", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("jean", 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void anUpdateReplacesTheOldKeys() {
+        index.index(1L, "Jean", "Dupont");
+        index.index(1L, "Paul", "Martin");
+
+        assertThat(index.suggest("jean", 10)).isEmpty();
+        assertThat(index.suggest("dupont", 10)).isEmpty();
+        assertThat(ids(index.suggest("paul", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("martin", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void aRemovedAuthorIsNoLongerSuggested() {
+        index.index(1L, "Jean", "Dupont");
+        index.index(2L, "Jeanne", "Moreau");
+
+        index.remove(1L);
+
+        assertThat(ids(index.suggest("jean", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void anAuthorMatchingSeveralKeysCountsOnceInTheLimit() {
+        // "marc marchal" and "marchal" both start with "mar"
+        index.index(1L, "Marc", "Marchal");
+        index.index(2L, "Marie", "Noël");
+        index.index(3L, "Martin", "Roux");
+
+        assertThat(ids(index.suggest("mar", 2))).hasSize(2).doesNotHaveDuplicates();
+        assertThat(ids(index.suggest("mar", 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void aMissingNamePartIsNotIndexed() {
+        index.index(1L, null, "Dupont");
+
+        assertThat(index.suggest("null", 10)).isEmpty();
+        assertThat(ids(index.suggest("dupont", 10))).containsExactly(1L);
+    }
+
+    private static List<Long> ids(List<AuthorDTO> suggestions) {
+        return suggestions.stream().map(AuthorDTO::getId).toList();
+    }
+}